@@ -0,0 +1,60 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Detached entities shaped like the ones the services work with, built the same way for every benchmark.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Product product(long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .description("Description of product " + id)
+                .price(BigDecimal.valueOf(100 + id % 9_900, 2))
+                .stockQuantity(1_000)
+                .stockSharded(false)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * An order with {@code items} lines on distinct products, subtotals and total filled in as the services do.
+     */
+    static Order order(int items) {
+        Order order = Order.builder()
+                .id(1L)
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++) {
+            Product product = product(i + 1);
+            int quantity = 1 + i % 5;
+            OrderItem item = OrderItem.builder()
+                    .id(i + 1L)
+                    .product(product)
+                    .quantity(quantity)
+                    .unitPrice(product.getPrice())
+                    .subtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                    .build();
+            order.addItem(item);
+            total = total.add(item.getSubtotal());
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.benchmark;
+
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.CommandLinePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Properties of a harness that boots the application, above application.properties and below command line
+ * arguments. Added before logging is set up, so logging levels apply from the start.
+ */
+public class BenchmarkDefaults implements ApplicationListener<ApplicationEnvironmentPreparedEvent>, Ordered {
+
+    /**
+     * In-memory H2 in PostgreSQL mode with the Flyway schema, quiet logs and no background jobs.
+     */
+    public static final Map<String, Object> H2 = Map.ofEntries(
+            Map.entry("spring.main.banner-mode", "off"),
+            Map.entry("spring.datasource.driver-class-name", "org.h2.Driver"),
+            Map.entry("spring.datasource.username", "sa"),
+            Map.entry("spring.datasource.password", ""),
+            Map.entry("spring.jpa.hibernate.ddl-auto", "validate"),
+            Map.entry("spring.jpa.show-sql", "false"),
+            Map.entry("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect"),
+            Map.entry("spring.jpa.properties.hibernate.generate_statistics", "false"),
+            Map.entry("ecommerce.scheduling.enabled", "false"),
+            Map.entry("logging.level.root", "WARN"),
+            Map.entry("logging.level.org.hibernate.SQL", "WARN"),
+            Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN"),
+            Map.entry("logging.level.com.ecommerce", "WARN")
+    );
+
+    private final String name;
+    private final Map<String, Object> properties;
+
+    public BenchmarkDefaults(String name, Map<String, Object> properties) {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    /**
+     * JDBC URL of an in-memory H2 database named {@code database}, in the mode the Flyway migrations need.
+     */
+    public static String h2Url(String database) {
+        return "jdbc:h2:mem:" + database
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000";
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        ConfigurableEnvironment environment = event.getEnvironment();
+        MapPropertySource defaults = new MapPropertySource(name, properties);
+        if (environment.getPropertySources().contains(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME)) {
+            environment.getPropertySources().addAfter(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME, defaults);
+        } else {
+            environment.getPropertySources().addFirst(defaults);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.mapper.OrderItemMapper;
+import com.ecommerce.mapper.OrderMapper;
+import com.ecommerce.mapper.ProductMapper;
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.request.ProductRequest;
+import com.ecommerce.model.response.OrderResponse;
+import com.ecommerce.model.response.ProductResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping of an order with a growing number of items, and of a single product.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final OrderMapper orderMapper = new OrderMapper(new OrderItemMapper());
+    private final ProductMapper productMapper = new ProductMapper();
+
+    private Product product;
+    private ProductRequest productRequest;
+
+    @State(Scope.Thread)
+    public static class OrderState {
+        @Param({"1", "10", "100", "1000"})
+        public int items;
+
+        private Order order;
+
+        @Setup
+        public void setUp() {
+            order = BenchmarkData.order(items);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product(1);
+        productRequest = new ProductRequest(product.getName(), product.getDescription(), product.getPrice(),
+                product.getStockQuantity());
+    }
+
+    @Benchmark
+    public OrderResponse orderToResponse(OrderState state) {
+        return orderMapper.toResponse(state.order);
+    }
+
+    @Benchmark
+    public ProductResponse productToResponse() {
+        return productMapper.toResponse(product);
+    }
+
+    @Benchmark
+    public Product productToEntity() {
+        return productMapper.toEntity(productRequest);
+    }
+}
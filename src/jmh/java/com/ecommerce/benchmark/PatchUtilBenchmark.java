@@ -0,0 +1,47 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.util.PatchUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective copy of a PATCH body onto the loaded product, as {@code ProductService.patchProduct} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatchUtilBenchmark {
+
+    private Product patch;
+    private Product target;
+
+    @Setup
+    public void setUp() {
+        patch = Product.builder()
+                .price(new BigDecimal("19.99"))
+                .stockQuantity(42)
+                .build();
+        target = BenchmarkData.product(1);
+    }
+
+    @Benchmark
+    public Product copyNonNullProperties() {
+        PatchUtil.copyNonNullProperties(patch, target);
+        return target;
+    }
+}
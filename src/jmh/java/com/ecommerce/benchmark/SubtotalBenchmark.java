@@ -0,0 +1,61 @@
+package com.ecommerce.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line subtotal and running total math of checkout and item updates:
+ * {@code unitPrice.multiply(BigDecimal.valueOf(quantity))}, then {@code total.add(subtotal)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubtotalBenchmark {
+    private static final int LINES = 100;
+
+    private final BigDecimal[] unitPrices = new BigDecimal[LINES];
+    private final int[] quantities = new int[LINES];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < LINES; i++) {
+            unitPrices[i] = BigDecimal.valueOf(199 + i * 37L, 2);
+            quantities[i] = 1 + i % 7;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void subtotals(Blackhole blackhole) {
+        // Every subtotal is consumed, returning only the last one would let the JIT drop the others
+        for (int i = 0; i < LINES; i++) {
+            blackhole.consume(unitPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public BigDecimal subtotalsAndTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            total = total.add(unitPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * JSON over {@link HttpClient} against the API, every call timed into the {@link LoadStats} of the current phase.
+ * Meant to be called from virtual threads: calls block until the response arrived.
+ */
+class LoadClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private volatile LoadStats stats;
+
+    LoadClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    void setStats(LoadStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Response of a call, with the body parsed when there is one.
+     */
+    record Response(int status, JsonNode body) {
+
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        long id() {
+            return body.get("id").asLong();
+        }
+    }
+
+    /**
+     * Sends a request and records it under {@code operation}, e.g. {@code POST /orders/{id}/items}.
+     * Returns null when no response was received.
+     */
+    Response call(String operation, String method, String path, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        try {
+            if (body == null) {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            } else {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            }
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(operation, response.statusCode(), System.nanoTime() - start);
+            byte[] bytes = response.body();
+            return new Response(response.statusCode(), bytes.length == 0 ? null : objectMapper.readTree(bytes));
+        } catch (IOException e) {
+            stats.recordIoError(operation);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    Response get(String operation, String path) {
+        return call(operation, "GET", path, null);
+    }
+
+    Response post(String operation, String path, Object body) {
+        return call(operation, "POST", path, body);
+    }
+
+    Response put(String operation, String path, Object body) {
+        return call(operation, "PUT", path, body);
+    }
+
+    Response delete(String operation, String path) {
+        return call(operation, "DELETE", path, null);
+    }
+}
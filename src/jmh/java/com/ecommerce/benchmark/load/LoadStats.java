@@ -0,0 +1,129 @@
+package com.ecommerce.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcomes per operation (method and URI template) of one phase, recorded from any number of threads.
+ * Latencies are of responses of any status; requests that failed without a response count as I/O errors.
+ */
+class LoadStats {
+    private static final long MAX_LATENCY_NANOS = Duration.ofMinutes(2).toNanos();
+
+    private final String phase;
+    private final Map<String, Operation> operations = new ConcurrentSkipListMap<>();
+    private volatile boolean recording = true;
+    private long startNanos = System.nanoTime();
+    private long endNanos;
+
+    LoadStats(String phase) {
+        this.phase = phase;
+    }
+
+    /**
+     * Drops what was recorded so far, e.g. at the end of a warmup.
+     */
+    void reset() {
+        operations.clear();
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        recording = false;
+        endNanos = System.nanoTime();
+    }
+
+    void record(String operation, int status, long nanos) {
+        if (recording) {
+            Operation stats = operations.computeIfAbsent(operation, name -> new Operation());
+            stats.latencies.recordValue(Math.min(nanos, MAX_LATENCY_NANOS));
+            stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+
+    void recordIoError(String operation) {
+        if (recording) {
+            operations.computeIfAbsent(operation, name -> new Operation()).ioErrors.increment();
+        }
+    }
+
+    long count(String operation, int status) {
+        Operation stats = operations.get(operation);
+        LongAdder count = stats == null ? null : stats.statuses.get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    void print() {
+        double seconds = (endNanos - startNanos) / 1e9;
+        System.out.printf("%n== %s (%.1f s)%n", phase, seconds);
+        System.out.printf("%-40s %8s %9s %7s %7s %7s %7s %6s %9s %9s %9s %9s%n", "operation", "count", "req/s",
+                "2xx", "409", "503", "4xx", "5xx", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        operations.forEach((name, stats) -> {
+            Histogram latencies = stats.latencies;
+            System.out.printf("%-40s %8d %9.1f %7d %7d %7d %7d %6d %9.2f %9.2f %9.2f %9.2f%s%n", name,
+                    latencies.getTotalCount(), latencies.getTotalCount() / seconds,
+                    stats.statusRange(200), stats.status(409), stats.status(503),
+                    stats.statusRange(400) - stats.status(409), stats.statusRange(500) - stats.status(503),
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()),
+                    stats.ioErrors.sum() > 0 ? "  I/O errors: " + stats.ioErrors.sum() : "");
+        });
+    }
+
+    Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("phase", phase);
+        json.put("seconds", (endNanos - startNanos) / 1e9);
+        List<Map<String, Object>> list = new ArrayList<>();
+        operations.forEach((name, stats) -> {
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("operation", name);
+            operation.put("count", stats.latencies.getTotalCount());
+            Map<String, Long> statuses = new LinkedHashMap<>();
+            new ConcurrentSkipListMap<>(stats.statuses).forEach((status, count) -> statuses.put(status.toString(), count.sum()));
+            operation.put("statuses", statuses);
+            operation.put("ioErrors", stats.ioErrors.sum());
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", millis(stats.latencies.getValueAtPercentile(50)));
+            latency.put("p90", millis(stats.latencies.getValueAtPercentile(90)));
+            latency.put("p99", millis(stats.latencies.getValueAtPercentile(99)));
+            latency.put("p99.9", millis(stats.latencies.getValueAtPercentile(99.9)));
+            latency.put("max", millis(stats.latencies.getMaxValue()));
+            operation.put("latencyMillis", latency);
+            list.add(operation);
+        });
+        json.put("operations", list);
+        return json;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Operation {
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder ioErrors = new LongAdder();
+
+        private long status(int status) {
+            LongAdder count = statuses.get(status);
+            return count == null ? 0 : count.sum();
+        }
+
+        private long statusRange(int from) {
+            return statuses.entrySet().stream()
+                    .filter(e -> e.getKey() >= from && e.getKey() < from + 100)
+                    .mapToLong(e -> e.getValue().sum())
+                    .sum();
+        }
+    }
+}
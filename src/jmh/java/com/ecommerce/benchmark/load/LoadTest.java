@@ -0,0 +1,352 @@
+package com.ecommerce.benchmark.load;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.benchmark.BenchmarkDefaults;
+import com.ecommerce.benchmark.load.LoadClient.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Load test of the HTTP API: boots the application on in-memory H2 and drives it from virtual threads.
+ * <ol>
+ *     <li>Mixed phase: {@code load.users} users in a closed loop, each iteration one scenario picked by weight.
+ *     Browsing pages through the catalog and reads products, checkout buys a few products in one call, order edits
+ *     create an order and add, change and remove items.</li>
+ *     <li>Flash sale: {@code load.flash-sale.clients} clients, each with its own order, add the same product with
+ *     {@code load.flash-sale.stock} units at once. Shed requests (503) are retried after a short random pause.</li>
+ * </ol>
+ * Afterwards the database is checked: no product stock is negative, and for every product the test created the
+ * units sold (order item quantities) equal the stock it lost. In the flash sale, exactly as many adds succeeded as
+ * units were sold and never more than its stock. Load shedding and admission control stay as configured, so 503
+ * responses are part of the report. Settings are Spring properties, e.g. {@code --load.users=500 --load.duration=60s}.
+ * <p>
+ * Embedded H2 waits for row locks inside synchronized code, which pins a virtual thread to its carrier. With the
+ * default of one carrier per CPU a few lock waits stall the whole server, so the Maven execution raises
+ * {@code jdk.virtualThreadScheduler.parallelism}. PostgreSQL and its driver do not have this problem.
+ */
+public class LoadTest {
+    private static final int PAGE_SIZE = 20;
+
+    private final LoadClient client;
+    private final Environment environment;
+    private final List<Long> productIds = new ArrayList<>();
+    private final Map<Long, Integer> initialStock = new ConcurrentHashMap<>();
+    private final AtomicLong customers = new AtomicLong();
+
+    LoadTest(LoadClient client, Environment environment) {
+        this.client = client;
+        this.environment = environment;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> defaults = new LinkedHashMap<>(BenchmarkDefaults.H2);
+        defaults.put("server.port", "0");
+        defaults.put("server.tomcat.accept-count", "2000");
+        defaults.put("spring.datasource.url", BenchmarkDefaults.h2Url("loadtest"));
+        defaults.put("load.products", "200");
+        defaults.put("load.stock", "1000000");
+        defaults.put("load.users", "200");
+        defaults.put("load.warmup", "5s");
+        defaults.put("load.duration", "30s");
+        defaults.put("load.think-time", "10ms");
+        defaults.put("load.mix.browse", "70");
+        defaults.put("load.mix.checkout", "20");
+        defaults.put("load.mix.edit", "10");
+        defaults.put("load.flash-sale.clients", "2000");
+        defaults.put("load.flash-sale.stock", "500");
+        defaults.put("load.flash-sale.max-attempts", "50");
+        defaults.put("load.output", "target/load-report.json");
+
+        boolean passed;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .listeners(new BenchmarkDefaults("loadTest", defaults))
+                .run(args)) {
+            Environment environment = context.getEnvironment();
+            String baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port") + "/api/v1";
+            LoadTest test = new LoadTest(new LoadClient(baseUrl), environment);
+            passed = test.run(context.getBean(JdbcTemplate.class));
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    boolean run(JdbcTemplate jdbcTemplate) throws Exception {
+        client.setStats(new LoadStats("setup"));
+        seedCatalog(environment.getRequiredProperty("load.products", Integer.class),
+                environment.getRequiredProperty("load.stock", Integer.class));
+
+        LoadStats mixed = mixedPhase();
+        mixed.print();
+        FlashSaleResult flashSale = flashSale();
+        flashSale.stats().print();
+        System.out.printf("Flash sale: %d units, %d clients, %d bought, %d sold out (409), %d gave up after 503s%n",
+                flashSale.stock(), flashSale.clients(), flashSale.bought(), flashSale.soldOut(), flashSale.gaveUp());
+
+        List<String> violations = verify(jdbcTemplate, flashSale);
+        violations.forEach(violation -> System.out.println("FAILED: " + violation));
+        System.out.println(violations.isEmpty() ? "Stock checks passed" : "Stock checks failed");
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("phases", List.of(mixed.toJson(), flashSale.stats().toJson()));
+        report.put("flashSale", Map.of("stock", flashSale.stock(), "clients", flashSale.clients(),
+                "bought", flashSale.bought(), "soldOut", flashSale.soldOut(), "gaveUp", flashSale.gaveUp()));
+        report.put("violations", violations);
+        Path output = Path.of(environment.getRequiredProperty("load.output"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        System.out.println("Report written to " + output.toAbsolutePath());
+        return violations.isEmpty();
+    }
+
+    private void seedCatalog(int products, int stock) {
+        List<Long> created = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < products; i++) {
+                int index = i;
+                executor.submit(() -> created.add(createProduct("Load product " + index, stock)));
+            }
+        }
+        productIds.addAll(created);
+    }
+
+    private long createProduct(String name, int stock) {
+        Response response = withRetries(50, () -> client.post("POST /products", "/products", Map.of(
+                "name", name,
+                "description", "Created by the load test",
+                "price", new BigDecimal("19.99"),
+                "stockQuantity", stock)));
+        if (response == null || !response.isSuccess()) {
+            throw new IllegalStateException("Could not create product " + name + ": " + response);
+        }
+        initialStock.put(response.id(), stock);
+        return response.id();
+    }
+
+    // Mixed phase
+
+    private LoadStats mixedPhase() throws InterruptedException {
+        int users = environment.getRequiredProperty("load.users", Integer.class);
+        Duration warmup = environment.getRequiredProperty("load.warmup", Duration.class);
+        Duration duration = environment.getRequiredProperty("load.duration", Duration.class);
+        Duration thinkTime = environment.getRequiredProperty("load.think-time", Duration.class);
+        int browse = environment.getRequiredProperty("load.mix.browse", Integer.class);
+        int checkout = environment.getRequiredProperty("load.mix.checkout", Integer.class);
+        int edit = environment.getRequiredProperty("load.mix.edit", Integer.class);
+
+        LoadStats stats = new LoadStats("mixed: " + users + " users, browse/checkout/edit "
+                + browse + "/" + checkout + "/" + edit);
+        client.setStats(stats);
+        long end = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        int pick = random.nextInt(browse + checkout + edit);
+                        if (pick < browse) {
+                            browse(random);
+                        } else if (pick < browse + checkout) {
+                            checkout(random);
+                        } else {
+                            editOrder(random);
+                        }
+                        if (!thinkTime.isZero()) {
+                            Thread.sleep(random.nextLong(thinkTime.toMillis() * 2 + 1));
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(warmup.toMillis());
+            stats.reset();
+        }
+        stats.stop();
+        return stats;
+    }
+
+    private void browse(ThreadLocalRandom random) {
+        Response page = client.get("GET /products", "/products?size=" + PAGE_SIZE);
+        if (page != null && page.isSuccess() && page.body().hasNonNull("nextCursor") && random.nextBoolean()) {
+            String cursor = URLEncoder.encode(page.body().get("nextCursor").asText(), StandardCharsets.UTF_8);
+            client.get("GET /products", "/products?size=" + PAGE_SIZE + "&cursor=" + cursor);
+        }
+        for (int i = 0; i < 3; i++) {
+            client.get("GET /products/{id}", "/products/" + randomProduct(random));
+        }
+    }
+
+    private void checkout(ThreadLocalRandom random) {
+        int lines = 1 + random.nextInt(3);
+        long first = random.nextInt(productIds.size());
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(Map.of("productId", productIds.get((int) ((first + i) % productIds.size())),
+                    "quantity", 1 + random.nextInt(2)));
+        }
+        long customer = customers.incrementAndGet();
+        Response order = client.post("POST /orders/checkout", "/orders/checkout", Map.of(
+                "customerName", "Customer " + customer,
+                "customerEmail", "customer" + customer + "@example.com",
+                "items", items));
+        if (order != null && order.isSuccess()) {
+            client.get("GET /orders/{id}", "/orders/" + order.id());
+        }
+    }
+
+    // Items are removed rather than orders deleted: deleting an order does not return its stock
+    private void editOrder(ThreadLocalRandom random) {
+        Response order = createOrder();
+        if (order == null || !order.isSuccess()) {
+            return;
+        }
+        String items = "/orders/" + order.id() + "/items";
+        int first = random.nextInt(productIds.size());
+        Response kept = client.post("POST /orders/{id}/items", items,
+                Map.of("productId", productIds.get(first), "quantity", 1));
+        if (kept == null || !kept.isSuccess()) {
+            return;
+        }
+        client.put("PUT /orders/{id}/items/{itemId}", items + "/" + kept.id(), Map.of("quantity", 2));
+        Response removed = client.post("POST /orders/{id}/items", items,
+                Map.of("productId", productIds.get((first + 1) % productIds.size()), "quantity", 1));
+        if (removed != null && removed.isSuccess()) {
+            client.delete("DELETE /orders/{id}/items/{itemId}", items + "/" + removed.id());
+        }
+        client.get("GET /orders/{id}/items", items);
+    }
+
+    private Response createOrder() {
+        long customer = customers.incrementAndGet();
+        return client.post("POST /orders", "/orders", Map.of(
+                "customerName", "Customer " + customer,
+                "customerEmail", "customer" + customer + "@example.com"));
+    }
+
+    private long randomProduct(ThreadLocalRandom random) {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    // Flash sale
+
+    record FlashSaleResult(LoadStats stats, long productId, int stock, int clients, long bought, long soldOut,
+                           long gaveUp) {
+    }
+
+    private FlashSaleResult flashSale() throws InterruptedException {
+        int clients = environment.getRequiredProperty("load.flash-sale.clients", Integer.class);
+        int stock = environment.getRequiredProperty("load.flash-sale.stock", Integer.class);
+        int maxAttempts = environment.getRequiredProperty("load.flash-sale.max-attempts", Integer.class);
+
+        client.setStats(new LoadStats("flash sale setup"));
+        long productId = createProduct("Flash sale product", stock);
+        List<Long> orders = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.submit(() -> {
+                    Response order = withRetries(maxAttempts, this::createOrder);
+                    if (order != null && order.isSuccess()) {
+                        orders.add(order.id());
+                    }
+                });
+            }
+        }
+
+        LoadStats stats = new LoadStats("flash sale: " + orders.size() + " clients, " + stock + " units");
+        client.setStats(stats);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong gaveUp = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long orderId : orders) {
+                executor.submit(() -> {
+                    start.await();
+                    Response response = withRetries(maxAttempts, () -> client.post("POST /orders/{id}/items",
+                            "/orders/" + orderId + "/items", Map.of("productId", productId, "quantity", 1)));
+                    if (response == null || response.status() == 503) {
+                        gaveUp.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+        stats.stop();
+        return new FlashSaleResult(stats, productId, stock, orders.size(),
+                stats.count("POST /orders/{id}/items", 201), stats.count("POST /orders/{id}/items", 409),
+                gaveUp.get());
+    }
+
+    // Retries shed requests (503) after a short random pause
+    private static Response withRetries(int maxAttempts, Supplier<Response> call) {
+        Response response = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            response = call.get();
+            if (response == null || response.status() != 503) {
+                return response;
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(20, 200));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return response;
+            }
+        }
+        return response;
+    }
+
+    // Verification
+
+    private List<String> verify(JdbcTemplate jdbcTemplate, FlashSaleResult flashSale) {
+        List<String> violations = new ArrayList<>();
+        Integer negative = jdbcTemplate.queryForObject(
+                "select count(*) from products where stock_quantity < 0", Integer.class);
+        if (negative != null && negative > 0) {
+            violations.add(negative + " products with negative stock");
+        }
+        Map<Long, Long> sold = new LinkedHashMap<>();
+        jdbcTemplate.query("select product_id, sum(quantity) from order_items group by product_id", rs -> {
+            sold.put(rs.getLong(1), rs.getLong(2));
+        });
+        Map<Long, Integer> current = new LinkedHashMap<>();
+        jdbcTemplate.query("select id, stock_quantity from products", rs -> {
+            current.put(rs.getLong(1), rs.getInt(2));
+        });
+        initialStock.forEach((productId, initial) -> {
+            long units = sold.getOrDefault(productId, 0L);
+            int remaining = current.get(productId);
+            if (initial - remaining != units) {
+                violations.add("product " + productId + " lost " + (initial - remaining) + " units of stock but "
+                        + units + " were sold");
+            }
+        });
+        long flashSold = sold.getOrDefault(flashSale.productId(), 0L);
+        if (flashSold > flashSale.stock()) {
+            violations.add("flash sale oversold: " + flashSold + " units sold of " + flashSale.stock());
+        }
+        if (flashSold != flashSale.bought()) {
+            violations.add("flash sale: " + flashSale.bought() + " successful adds but " + flashSold + " units sold");
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,216 @@
+package com.ecommerce.benchmark.persistence;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.benchmark.BenchmarkDefaults;
+import com.ecommerce.mapper.OrderMapper;
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Throughput and latency of the data access strategies, against the Flyway schema on in-memory H2.
+ * <p>
+ * Boots the application context without the web layer, loads a {@link SyntheticDataset} and runs every strategy
+ * at each thread count, printing a table and writing the results as JSON. Settings are Spring properties and can
+ * be given as arguments, e.g. {@code --benchmark.threads=1,8,32 --benchmark.orders=50000}:
+ * <ul>
+ *     <li>{@code benchmark.products}, {@code benchmark.orders}, {@code benchmark.items-per-order}: dataset size</li>
+ *     <li>{@code benchmark.page-size}: orders per list read</li>
+ *     <li>{@code benchmark.hot-products}: products the stock strategies contend on</li>
+ *     <li>{@code benchmark.insert-items}: items of each inserted order</li>
+ *     <li>{@code benchmark.threads}, {@code benchmark.warmup}, {@code benchmark.duration}: the sweep</li>
+ *     <li>{@code benchmark.strategies}: subset of strategies to run, all by default</li>
+ *     <li>{@code benchmark.output}: JSON result file</li>
+ * </ul>
+ * H2 is not PostgreSQL: the numbers rank strategies against each other, they do not predict production latency.
+ */
+public class PersistenceBenchmark {
+
+    private static final Map<String, Object> DEFAULTS = defaults();
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final OrderMapper orderMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final SyntheticDataset dataset;
+    private final int pageSize;
+    private final int hotProducts;
+    private final int insertItems;
+
+    PersistenceBenchmark(ConfigurableApplicationContext context, SyntheticDataset dataset) {
+        Environment environment = context.getEnvironment();
+        this.orderRepository = context.getBean(OrderRepository.class);
+        this.productRepository = context.getBean(ProductRepository.class);
+        this.orderMapper = context.getBean(OrderMapper.class);
+        this.entityManager = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.dataset = dataset;
+        this.pageSize = environment.getRequiredProperty("benchmark.page-size", Integer.class);
+        this.hotProducts = environment.getRequiredProperty("benchmark.hot-products", Integer.class);
+        this.insertItems = environment.getRequiredProperty("benchmark.insert-items", Integer.class);
+    }
+
+    /**
+     * Strategies by name, in the order they run.
+     */
+    Map<String, Consumer<Random>> strategies() {
+        Map<String, Consumer<Random>> strategies = new LinkedHashMap<>();
+
+        // Reads of a page of orders with their items and products, mapped to responses
+        strategies.put("read-find-all", random -> readTransaction.executeWithoutResult(status -> {
+            int page = random.nextInt(Math.max(1, dataset.orders() / pageSize));
+            orderRepository.findAll(PageRequest.of(page, pageSize, Sort.by("id")))
+                    .forEach(orderMapper::toResponse);
+        }));
+        strategies.put("read-fetch-join", random -> readTransaction.executeWithoutResult(status ->
+                entityManager.createQuery("select distinct o from Order o "
+                                + "left join fetch o.orderItems i left join fetch i.product "
+                                + "where o.id in (select o2.id from Order o2 where o2.id > :afterId "
+                                + "order by o2.id limit :limit) order by o.id", Order.class)
+                        .setParameter("afterId", dataset.randomPageStart(random, pageSize))
+                        .setParameter("limit", pageSize)
+                        .getResultList()
+                        .forEach(orderMapper::toResponse)));
+        strategies.put("read-projection", random -> readTransaction.executeWithoutResult(status ->
+                orderMapper.toResponses(orderRepository.findLinesAfter(
+                        dataset.randomPageStart(random, pageSize), pageSize))));
+
+        // One unit of stock off a hot product
+        strategies.put("stock-locked-read", random -> writeTransaction.executeWithoutResult(status -> {
+            Product product = productRepository.findByIdForUpdate(dataset.hotProductId(random, hotProducts))
+                    .orElseThrow();
+            if (product.getStockQuantity() < 1) {
+                throw new IllegalStateException("Not enough stock");
+            }
+            product.setStockQuantity(product.getStockQuantity() - 1);
+        }));
+        strategies.put("stock-conditional-update", random -> writeTransaction.executeWithoutResult(status -> {
+            if (productRepository.decrementStock(dataset.hotProductId(random, hotProducts), 1) != 1) {
+                throw new IllegalStateException("Not enough stock");
+            }
+        }));
+
+        // One order with its items per transaction, with the configured JDBC batch size and without batching
+        strategies.put("insert-batched", random -> writeTransaction.executeWithoutResult(status ->
+                orderRepository.save(dataset.order(random, "Benchmark", insertItems))));
+        strategies.put("insert-unbatched", random -> writeTransaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            orderRepository.save(dataset.order(random, "Benchmark", insertItems));
+        }));
+        return strategies;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .listeners(new BenchmarkDefaults("persistenceBenchmark", DEFAULTS))
+                .run(args)) {
+            Environment environment = context.getEnvironment();
+            SyntheticDataset dataset = new SyntheticDataset(
+                    context.getBean(ProductRepository.class),
+                    context.getBean(OrderRepository.class),
+                    context.getBean(EntityManager.class),
+                    new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+            long loadStart = System.nanoTime();
+            dataset.load(environment.getRequiredProperty("benchmark.products", Integer.class),
+                    environment.getRequiredProperty("benchmark.orders", Integer.class),
+                    environment.getRequiredProperty("benchmark.items-per-order", Integer.class));
+            System.out.printf("Loaded %d products and %d orders in %d ms%n", dataset.products(), dataset.orders(),
+                    Duration.ofNanos(System.nanoTime() - loadStart).toMillis());
+
+            Map<String, Consumer<Random>> strategies = new PersistenceBenchmark(context, dataset).strategies();
+            List<String> selected = List.of(environment.getProperty("benchmark.strategies", String[].class,
+                    strategies.keySet().toArray(String[]::new)));
+            StrategyRunner runner = new StrategyRunner(
+                    environment.getRequiredProperty("benchmark.warmup", Duration.class),
+                    environment.getRequiredProperty("benchmark.duration", Duration.class));
+
+            System.out.printf("%-26s %7s %12s %8s %9s %9s %9s %9s %10s%n", "strategy", "threads", "ops/s",
+                    "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "stmts/op");
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (String name : selected) {
+                Consumer<Random> strategy = strategies.get(name);
+                if (strategy == null) {
+                    throw new IllegalArgumentException("Unknown strategy " + name + ", expected one of "
+                            + strategies.keySet());
+                }
+                for (int threads : environment.getRequiredProperty("benchmark.threads", int[].class)) {
+                    StrategyRunner.Result result = runner.run(name, threads, strategy);
+                    System.out.printf("%-26s %7d %12.1f %8d %9.3f %9.3f %9.3f %9.3f %10.2f%n", name, threads,
+                            result.throughput(), result.errors(), result.percentileMillis(50),
+                            result.percentileMillis(99), result.percentileMillis(99.9),
+                            result.latencies().getMaxValue() / 1e6, result.statementsPerOperation());
+                    results.add(toJson(result));
+                }
+            }
+
+            Path output = Path.of(environment.getRequiredProperty("benchmark.output"));
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+            System.out.println("Results written to " + output.toAbsolutePath());
+        }
+    }
+
+    private static Map<String, Object> defaults() {
+        Map<String, Object> defaults = new LinkedHashMap<>(BenchmarkDefaults.H2);
+        defaults.put("spring.main.web-application-type", "none");
+        defaults.put("spring.datasource.url", BenchmarkDefaults.h2Url("benchmark"));
+        defaults.put("spring.datasource.hikari.maximum-pool-size", "32");
+        defaults.put("ecommerce.datasource.admission.enabled", "false");
+        defaults.put("benchmark.products", "1000");
+        defaults.put("benchmark.orders", "10000");
+        defaults.put("benchmark.items-per-order", "5");
+        defaults.put("benchmark.page-size", "20");
+        defaults.put("benchmark.hot-products", "10");
+        defaults.put("benchmark.insert-items", "20");
+        defaults.put("benchmark.threads", "1,2,4,8,16,32");
+        defaults.put("benchmark.warmup", "3s");
+        defaults.put("benchmark.duration", "10s");
+        defaults.put("benchmark.output", "target/persistence-benchmark.json");
+        return defaults;
+    }
+
+    private static Map<String, Object> toJson(StrategyRunner.Result result) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("strategy", result.strategy());
+        json.put("threads", result.threads());
+        json.put("operations", result.operations());
+        json.put("errors", result.errors());
+        json.put("throughput", result.throughput());
+        json.put("statementsPerOperation", result.statementsPerOperation());
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", result.percentileMillis(50));
+        latency.put("p90", result.percentileMillis(90));
+        latency.put("p99", result.percentileMillis(99));
+        latency.put("p99.9", result.percentileMillis(99.9));
+        latency.put("max", result.latencies().getMaxValue() / 1e6);
+        json.put("latencyMillis", latency);
+        return json;
+    }
+}
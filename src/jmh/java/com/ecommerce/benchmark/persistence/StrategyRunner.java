@@ -0,0 +1,116 @@
+package com.ecommerce.benchmark.persistence;
+
+import com.ecommerce.datasource.SqlStats;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs one operation on a number of threads in a closed loop: each thread starts its next operation as soon as the
+ * previous one finished. A warmup period is run and discarded before the measured one.
+ */
+class StrategyRunner {
+    private static final long MAX_LATENCY_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final Duration warmup;
+    private final Duration measurement;
+
+    StrategyRunner(Duration warmup, Duration measurement) {
+        this.warmup = warmup;
+        this.measurement = measurement;
+    }
+
+    Result run(String strategy, int threads, Consumer<Random> operation) throws InterruptedException {
+        runFor(threads, warmup, operation);
+        List<Worker> workers = runFor(threads, measurement, operation);
+
+        Histogram latencies = new Histogram(MAX_LATENCY_NANOS, 3);
+        long errors = 0;
+        long statements = 0;
+        for (Worker worker : workers) {
+            latencies.add(worker.latencies);
+            errors += worker.errors;
+            statements += worker.statements;
+        }
+        return new Result(strategy, threads, latencies, errors, statements, measurement);
+    }
+
+    private List<Worker> runFor(int threads, Duration duration, Consumer<Random> operation) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> started = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(operation, running);
+            workers.add(worker);
+            started.add(Thread.ofPlatform().name("benchmark-" + i).start(worker));
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        for (Thread thread : started) {
+            thread.join();
+        }
+        return workers;
+    }
+
+    private static final class Worker implements Runnable {
+        private final Consumer<Random> operation;
+        private final AtomicBoolean running;
+        private final Histogram latencies = new Histogram(MAX_LATENCY_NANOS, 3);
+        private long errors;
+        private long statements;
+
+        private Worker(Consumer<Random> operation, AtomicBoolean running) {
+            this.operation = operation;
+            this.running = running;
+        }
+
+        @Override
+        public void run() {
+            Random random = ThreadLocalRandom.current();
+            SqlStats.Scope scope = SqlStats.begin();
+            try {
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    try {
+                        operation.accept(random);
+                        latencies.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+                    } catch (RuntimeException e) {
+                        errors++;
+                    }
+                }
+            } finally {
+                SqlStats.end(scope);
+                statements = scope.getStatements();
+            }
+        }
+    }
+
+    /**
+     * Measured period of one strategy at one thread count. Latencies are of successful operations only.
+     */
+    record Result(String strategy, int threads, Histogram latencies, long errors, long statements, Duration duration) {
+
+        long operations() {
+            return latencies.getTotalCount();
+        }
+
+        double throughput() {
+            return operations() / (duration.toNanos() / 1e9);
+        }
+
+        double statementsPerOperation() {
+            long attempts = operations() + errors;
+            return attempts == 0 ? 0 : (double) statements / attempts;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.benchmark.persistence;
+
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Products and orders with items, generated from a fixed seed so that runs with the same settings see the same data.
+ * Inserted through the repositories in chunks of one transaction each.
+ */
+class SyntheticDataset {
+    // Stock strategies decrement for the whole run and must never run out
+    static final int STOCK = 1_000_000_000;
+    private static final int CHUNK = 500;
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    SyntheticDataset(ProductRepository productRepository, OrderRepository orderRepository,
+                     EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    void load(int products, int orders, int itemsPerOrder) {
+        Random random = new Random(42);
+        for (int start = 0; start < products; start += CHUNK) {
+            int end = Math.min(products, start + CHUNK);
+            List<Product> chunk = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                chunk.add(Product.builder()
+                        .name("Product " + i)
+                        .description("Synthetic product " + i)
+                        .price(BigDecimal.valueOf(100 + random.nextInt(100_000), 2))
+                        .stockQuantity(STOCK)
+                        .build());
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepository.saveAll(chunk).forEach(p -> productIds.add(p.getId())));
+        }
+        for (int start = 0; start < orders; start += CHUNK) {
+            int from = start;
+            int to = Math.min(orders, start + CHUNK);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Order> chunk = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    chunk.add(order(random, "Customer " + i, itemsPerOrder));
+                }
+                orderRepository.saveAll(chunk).forEach(o -> orderIds.add(o.getId()));
+            });
+        }
+        entityManager.clear();
+    }
+
+    /**
+     * A new order with {@code items} lines on distinct products from a random offset, referenced without loading them.
+     */
+    Order order(Random random, String customerName, int items) {
+        int first = random.nextInt(productIds.size());
+        Order order = Order.builder()
+                .customerName(customerName)
+                .customerEmail("customer@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .build();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++) {
+            int quantity = 1 + random.nextInt(5);
+            BigDecimal unitPrice = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            OrderItem item = OrderItem.builder()
+                    .product(entityManager.getReference(Product.class, productIds.get((first + i) % productIds.size())))
+                    .quantity(quantity)
+                    .unitPrice(unitPrice)
+                    .subtotal(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                    .build();
+            order.addItem(item);
+            total = total.add(item.getSubtotal());
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+
+    /**
+     * One of the first {@code hot} products, where stock strategies contend.
+     */
+    long hotProductId(Random random, int hot) {
+        return productIds.get(random.nextInt(Math.min(hot, productIds.size())));
+    }
+
+    /**
+     * Start of a keyset page, so that a page of {@code size} orders follows it.
+     */
+    long randomPageStart(Random random, int size) {
+        int index = random.nextInt(Math.max(1, orderIds.size() - size));
+        return orderIds.get(index) - 1;
+    }
+
+    int products() {
+        return productIds.size();
+    }
+
+    int orders() {
+        return orderIds.size();
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process Caffeine caches (W-TinyLFU eviction) for the product catalog.
+ * The cache interceptor runs outside the transaction interceptor so that cache hits never open a transaction,
+ * and the manager is transaction aware so evictions issued inside a transaction only apply after commit.
+ * All entries carry stock, so their TTLs stay short: a fill that read before a concurrent commit may land after
+ * its eviction.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    public static final String PRODUCT_JSON = "productJson";
+    public static final String PRODUCT_PAGE_JSON = "productPageJson";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${ecommerce.cache.products.maximum-size:10000}") long productsMaximumSize,
+            @Value("${ecommerce.cache.products.expire-after-write:10s}") Duration productsTtl,
+            @Value("${ecommerce.cache.product-pages.maximum-size:500}") long pagesMaximumSize,
+            @Value("${ecommerce.cache.product-pages.expire-after-write:30s}") Duration pagesTtl
+    ) {
+        // Only the serialized responses are cached, never entities shared between callers
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                cache(PRODUCT_JSON, productsMaximumSize, productsTtl),
+                cache(PRODUCT_PAGE_JSON, pagesMaximumSize, pagesTtl)
+        ));
+        cacheManager.afterPropertiesSet();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static CaffeineCache cache(String name, long maximumSize, Duration ttl) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(), false);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.config;
+
+import com.ecommerce.filter.ConcurrencyLimitFilter;
+import com.ecommerce.limiter.AimdLimiter;
+import com.ecommerce.limiter.EndpointGroup;
+import com.ecommerce.limiter.EndpointLimiters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per endpoint group, enabled with {@code ecommerce.limiter.enabled=true}.
+ * Each group reads {@code ecommerce.limiter.<group>.initial-limit}, {@code min-limit}, {@code max-limit} and
+ * {@code latency-threshold}, falling back to the defaults of {@link EndpointGroup}. Groups with a fixed limit read
+ * {@code ecommerce.limiter.<group>.limit} instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+    private static final String PREFIX = "ecommerce.limiter.";
+
+    @Bean
+    public EndpointLimiters endpointLimiters(
+            Environment environment,
+            @Value("${ecommerce.limiter.backoff-ratio:0.9}") double backoffRatio
+    ) {
+        Map<EndpointGroup, AimdLimiter> limiters = new EnumMap<>(EndpointGroup.class);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            String prefix = PREFIX + group.propertyName() + ".";
+            if (!group.isAdaptive()) {
+                limiters.put(group, AimdLimiter.fixed(
+                        environment.getProperty(prefix + "limit", Integer.class, group.initialLimit())));
+                continue;
+            }
+            limiters.put(group, new AimdLimiter(
+                    environment.getProperty(prefix + "initial-limit", Integer.class, group.initialLimit()),
+                    environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                    environment.getProperty(prefix + "max-limit", Integer.class, group.maxLimit()),
+                    environment.getProperty(prefix + "latency-threshold", Duration.class, group.latencyThreshold()),
+                    backoffRatio));
+        }
+        return new EndpointLimiters(limiters);
+    }
+
+    // Runs before the other filters so that shed requests cost as little as possible
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            EndpointLimiters endpointLimiters,
+            ObjectMapper objectMapper,
+            @Value("${ecommerce.limiter.retry-after:1s}") Duration retryAfter
+    ) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(endpointLimiters, objectMapper, retryAfter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.context.annotation.Profile;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @RequiredArgsConstructor
@@ -64,11 +65,8 @@ public class DataLoader {
                     .stockQuantity(60)
                     .build();
 
-            productRepository.save(laptop);
-            productRepository.save(mouse);
-            productRepository.save(keyboard);
-            productRepository.save(monitor);
-            productRepository.save(headphones);
+            // One transaction, so the inserts flush together in a JDBC batch
+            productRepository.saveAll(List.of(laptop, mouse, keyboard, monitor, headphones));
 
             log.info("Created {} products", 5);
 
@@ -106,8 +104,7 @@ public class DataLoader {
             order1.getOrderItems().add(item1);
             order1.getOrderItems().add(item2);
             order1.getOrderItems().add(item3);
-
-            orderRepository.save(order1);
+            order1.setTotalAmount(totalOf(order1));
 
             Order order2 = Order.builder()
                     .customerName("Jane Smith")
@@ -134,11 +131,19 @@ public class DataLoader {
 
             order2.getOrderItems().add(item4);
             order2.getOrderItems().add(item5);
+            order2.setTotalAmount(totalOf(order2));
 
-            orderRepository.save(order2);
+            // Items cascade from their orders and are inserted in one batch
+            orderRepository.saveAll(List.of(order1, order2));
 
             log.info("Created {} orders with order items", 2);
             log.info("Sample data loaded successfully!");
         };
     }
+
+    private static BigDecimal totalOf(Order order) {
+        return order.getOrderItems().stream()
+                .map(OrderItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
 }
\ No newline at end of file
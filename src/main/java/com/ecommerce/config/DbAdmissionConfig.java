@@ -0,0 +1,74 @@
+package com.ecommerce.config;
+
+import com.ecommerce.datasource.AdmissionControlDataSource;
+import com.ecommerce.datasource.AdmissionGate;
+import com.ecommerce.filter.RequestClassFilter;
+import com.ecommerce.limiter.RequestClass;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admission control for the database, enabled with {@code ecommerce.datasource.admission.enabled=true}.
+ * The application {@code dataSource} bean is wrapped in an {@link AdmissionControlDataSource}, so JPA, Flyway and
+ * JdbcTemplate all pass the gate. Permits default to the Hikari pool size.
+ * Each request class reads {@code ecommerce.datasource.admission.<class>.weight}, {@code max-permits} and
+ * {@code timeout}, falling back to the defaults of {@link RequestClass}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.datasource.admission.enabled", havingValue = "true")
+public class DbAdmissionConfig {
+    private static final String PREFIX = "ecommerce.datasource.admission.";
+
+    @Bean
+    public AdmissionGate dbAdmissionGate(
+            Environment environment,
+            @Value("${ecommerce.datasource.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int permits,
+            @Value("${ecommerce.datasource.admission.timeout:30s}") Duration timeout
+    ) {
+        Map<RequestClass, AdmissionGate.Lane> lanes = new EnumMap<>(RequestClass.class);
+        AdmissionGate.defaultLanes(permits, timeout).forEach((requestClass, lane) -> {
+            String prefix = PREFIX + requestClass.propertyName() + ".";
+            lanes.put(requestClass, new AdmissionGate.Lane(
+                    environment.getProperty(prefix + "weight", Integer.class, lane.weight()),
+                    environment.getProperty(prefix + "max-permits", Integer.class, lane.maxPermits()),
+                    environment.getProperty(prefix + "timeout", Duration.class, lane.timeout())));
+        });
+        return new AdmissionGate(permits, lanes);
+    }
+
+    // Static so the post processor does not pull this configuration in early
+    @Bean
+    public static BeanPostProcessor dbAdmissionDataSourceWrapper(ObjectProvider<AdmissionGate> gate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof AdmissionControlDataSource)) {
+                    return new AdmissionControlDataSource(dataSource, gate.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // After load shedding, before anything that may touch the database
+    @Bean
+    public FilterRegistrationBean<RequestClassFilter> requestClassFilter() {
+        FilterRegistrationBean<RequestClassFilter> registration = new FilterRegistrationBean<>(new RequestClassFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 6);
+        return registration;
+    }
+}
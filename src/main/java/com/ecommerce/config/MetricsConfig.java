@@ -0,0 +1,75 @@
+package com.ecommerce.config;
+
+import com.ecommerce.datasource.AdmissionGate;
+import com.ecommerce.limiter.AimdLimiter;
+import com.ecommerce.limiter.EndpointLimiters;
+import com.ecommerce.limiter.RequestClass;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application metrics on top of the ones Spring Boot binds itself (HTTP requests, Hikari, Hibernate, JVM).
+ * {@code @Timed} service classes are timed per method, and the database admission gate and the concurrency
+ * limiters are exported when they are enabled. Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder dbAdmissionMetrics(ObjectProvider<AdmissionGate> gate) {
+        return registry -> gate.ifAvailable(admission -> {
+            for (RequestClass requestClass : RequestClass.values()) {
+                String tag = requestClass.propertyName();
+                Gauge.builder("ecommerce.db.admission.in.use", admission, g -> g.getInUse(requestClass))
+                        .tag("class", tag)
+                        .description("Database admission permits held")
+                        .register(registry);
+                Gauge.builder("ecommerce.db.admission.waiting", admission, g -> g.getQueueLength(requestClass))
+                        .tag("class", tag)
+                        .description("Threads queued for a database admission permit")
+                        .register(registry);
+                FunctionTimer.builder("ecommerce.db.admission.wait", admission,
+                                g -> g.getAdmitted(requestClass) + g.getTimedOut(requestClass),
+                                g -> g.getTotalWait(requestClass).toNanos(), TimeUnit.NANOSECONDS)
+                        .tag("class", tag)
+                        .description("Time spent queued for a database admission permit")
+                        .register(registry);
+                FunctionCounter.builder("ecommerce.db.admission.timeouts", admission, g -> g.getTimedOut(requestClass))
+                        .tag("class", tag)
+                        .register(registry);
+            }
+        });
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(ObjectProvider<EndpointLimiters> limiters) {
+        return registry -> limiters.ifAvailable(endpointLimiters -> endpointLimiters.all().forEach((group, limiter) -> {
+            String tag = group.propertyName();
+            Gauge.builder("ecommerce.limiter.limit", limiter, AimdLimiter::getLimit)
+                    .tag("group", tag)
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("ecommerce.limiter.in.flight", limiter, AimdLimiter::getInFlight)
+                    .tag("group", tag)
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.limiter.rejected", limiter, AimdLimiter::getRejected)
+                    .tag("group", tag)
+                    .description("Requests shed with 503")
+                    .register(registry);
+        }));
+    }
+}
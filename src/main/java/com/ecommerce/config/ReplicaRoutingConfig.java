@@ -0,0 +1,89 @@
+package com.ecommerce.config;
+
+import com.ecommerce.datasource.ConsistencyTokenListener;
+import com.ecommerce.datasource.ReplicaRoutingDataSource;
+import com.ecommerce.filter.ConsistencyTokenFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing, enabled with {@code ecommerce.datasource.replicas.enabled=true}.
+ * The primary pool is configured by the usual {@code spring.datasource.*} properties, the replicas by
+ * {@code ecommerce.datasource.replicas.*}. Read-only service transactions go to a replica unless the request
+ * needs to read its own recent writes, see {@link ConsistencyTokenFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${ecommerce.datasource.replicas.urls}") List<String> urls,
+            @Value("${ecommerce.datasource.replicas.username:}") String username,
+            @Value("${ecommerce.datasource.replicas.password:}") String password,
+            @Value("${ecommerce.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize
+    ) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(username.isEmpty() ? properties.determinePassword() : password)
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    // The one DataSource JPA, Flyway and JdbcTemplate see
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ConsistencyTokenListener consistencyTokenListener() {
+        return new ConsistencyTokenListener();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConsistencyTokenFilter> consistencyTokenFilter(
+            @Value("${ecommerce.datasource.replicas.max-lag:5s}") Duration maxReplicaLag
+    ) {
+        FilterRegistrationBean<ConsistencyTokenFilter> registration =
+                new FilterRegistrationBean<>(new ConsistencyTokenFilter(maxReplicaLag));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.config;
+
+import com.ecommerce.filter.SqlStatsFilter;
+import com.ecommerce.limiter.EndpointGroup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-request SQL statement counting, enabled with {@code ecommerce.sql-stats.enabled=true}.
+ * Budgets are read from {@code ecommerce.sql-stats.budget.<group>}, falling back to
+ * {@code ecommerce.sql-stats.budget.default}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.sql-stats.enabled", havingValue = "true")
+public class SqlStatsConfig {
+    private static final String PREFIX = "ecommerce.sql-stats.budget.";
+
+    @Bean
+    public FilterRegistrationBean<SqlStatsFilter> sqlStatsFilter(
+            Environment environment,
+            @Value("${ecommerce.sql-stats.budget.default:10}") int defaultBudget,
+            @Value("${ecommerce.sql-stats.headers:false}") boolean headers
+    ) {
+        Map<EndpointGroup, Integer> budgets = new EnumMap<>(EndpointGroup.class);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            Integer budget = environment.getProperty(PREFIX + group.propertyName(), Integer.class);
+            if (budget != null) {
+                budgets.put(group, budget);
+            }
+        }
+        FilterRegistrationBean<SqlStatsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatsFilter(defaultBudget, budgets, headers));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 7);
+        return registration;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.datasource.AdmissionGate;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.limiter.EndpointLimiters;
+import com.ecommerce.limiter.RequestClass;
+import com.ecommerce.model.response.CacheStatsResponse;
+import com.ecommerce.model.response.ConcurrencyLimitResponse;
+import com.ecommerce.model.response.DbAdmissionStatsResponse;
+import com.ecommerce.model.response.ExportJobResponse;
+import com.ecommerce.model.response.OrderImportReport;
+import com.ecommerce.model.response.ProductImportReport;
+import com.ecommerce.service.CacheStatsService;
+import com.ecommerce.service.OrderExportService;
+import com.ecommerce.service.OrderImportService;
+import com.ecommerce.service.ProductImportService;
+import com.ecommerce.util.FileDownloadUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+@Tag(name = "Admin", description = "Operational statistics and bulk data jobs")
+public class AdminController {
+    private final CacheStatsService cacheStatsService;
+    private final OrderImportService orderImportService;
+    private final ProductImportService productImportService;
+    private final OrderExportService orderExportService;
+    private final ObjectProvider<AdmissionGate> dbAdmissionGate;
+    private final ObjectProvider<EndpointLimiters> endpointLimiters;
+
+    @GetMapping("/caches")
+    @Operation(summary = "Get cache statistics",
+            description = "Size, hits, misses and evictions of each in-process cache since startup.")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+
+    @GetMapping("/db-admission")
+    @Operation(summary = "Get database admission statistics",
+            description = "Per request class: permits it may hold and holds, threads waiting for one and their "
+                    + "queue wait time since startup. 404 when ecommerce.datasource.admission.enabled is false.")
+    public ResponseEntity<List<DbAdmissionStatsResponse>> getDbAdmissionStats() {
+        AdmissionGate gate = dbAdmissionGate.getIfAvailable();
+        if (gate == null) {
+            throw new ResourceNotFoundException("Database admission control is disabled");
+        }
+        return ResponseEntity.ok(Arrays.stream(RequestClass.values())
+                .map(requestClass -> {
+                    long waits = gate.getAdmitted(requestClass) + gate.getTimedOut(requestClass);
+                    return DbAdmissionStatsResponse.builder()
+                            .requestClass(requestClass.propertyName())
+                            .weight(gate.getLane(requestClass).weight())
+                            .maxPermits(gate.getLane(requestClass).maxPermits())
+                            .inUse(gate.getInUse(requestClass))
+                            .waiting(gate.getQueueLength(requestClass))
+                            .admitted(gate.getAdmitted(requestClass))
+                            .timedOut(gate.getTimedOut(requestClass))
+                            .averageWaitMs(waits == 0 ? 0 : gate.getTotalWait(requestClass).toNanos() / 1e6 / waits)
+                            .maxWaitMs(gate.getMaxWait(requestClass).toNanos() / 1e6)
+                            .build();
+                })
+                .toList());
+    }
+
+    @GetMapping("/limits")
+    @Operation(summary = "Get concurrency limits",
+            description = "Current adaptive limit, in-flight requests, accepted and rejected (503) requests per "
+                    + "endpoint group since startup. 404 when ecommerce.limiter.enabled is false.")
+    public ResponseEntity<List<ConcurrencyLimitResponse>> getConcurrencyLimits() {
+        EndpointLimiters limiters = endpointLimiters.getIfAvailable();
+        if (limiters == null) {
+            throw new ResourceNotFoundException("Concurrency limits are disabled");
+        }
+        return ResponseEntity.ok(limiters.all().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> ConcurrencyLimitResponse.builder()
+                        .group(entry.getKey().propertyName())
+                        .limit(entry.getValue().getLimit())
+                        .inFlight(entry.getValue().getInFlight())
+                        .accepted(entry.getValue().getAccepted())
+                        .rejected(entry.getValue().getRejected())
+                        .build())
+                .toList());
+    }
+
+    @PostMapping(value = "/orders/import", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    @Operation(summary = "Import historical orders",
+            description = "NDJSON body, one order with its items per line. The body is streamed and written in "
+                    + "chunked transactions. Invalid lines are skipped and reported, stock is not touched.")
+    public ResponseEntity<OrderImportReport> importOrders(InputStream body) {
+        return ResponseEntity.ok(orderImportService.importOrders(body));
+    }
+
+    @PostMapping(value = "/products/import",
+            consumes = {"text/csv", "text/tab-separated-values", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Import the product catalog",
+            description = "CSV or TSV with a header line naming name, description, price and stock_quantity. "
+                    + "Products are upserted by name in batches, invalid rows are skipped and reported.")
+    public ResponseEntity<ProductImportReport> importProducts(InputStream body) {
+        return ResponseEntity.ok(productImportService.importProducts(body));
+    }
+
+    @PostMapping("/orders/exports")
+    @Operation(summary = "Start an order export",
+            description = "Writes all orders with their items to a file in the background, as NDJSON (one order per "
+                    + "line) or CSV (one item per line). Poll the returned job until it is COMPLETED.")
+    public ResponseEntity<ExportJobResponse> startOrderExport(@RequestParam(defaultValue = "ndjson") String format) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(orderExportService.startExport(OrderExportService.Format.of(format)));
+    }
+
+    @GetMapping("/orders/exports/{id}")
+    @Operation(summary = "Get an order export job")
+    public ResponseEntity<ExportJobResponse> getOrderExport(@PathVariable String id) {
+        return ResponseEntity.ok(orderExportService.getExport(id));
+    }
+
+    @GetMapping("/orders/exports/{id}/file")
+    @Operation(summary = "Download a completed order export",
+            description = "Sent zero-copy from the export file. Supports a single Range to resume a download.")
+    public void downloadOrderExport(@PathVariable String id,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        Path file = orderExportService.getExportFile(id);
+        OrderExportService.Format format = orderExportService.getExportFormat(id);
+        FileDownloadUtil.send(file, format.contentType(), "orders-" + id + "." + format.extension(),
+                request, response);
+    }
+}
@@ -3,12 +3,15 @@ package com.ecommerce.controller;
 import com.ecommerce.mapper.OrderMapper;
 import com.ecommerce.model.entity.Order;
 import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.request.CheckoutRequest;
 import com.ecommerce.model.request.OrderCreateRequest;
 import com.ecommerce.model.request.OrderItemRequest;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
 import com.ecommerce.model.request.OrderUpdateRequest;
+import com.ecommerce.model.response.CursorPage;
 import com.ecommerce.model.response.OrderItemResponse;
 import com.ecommerce.model.response.OrderResponse;
+import com.ecommerce.model.response.ResourceVersion;
 import com.ecommerce.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,20 +33,34 @@ public class OrderController {
     private final OrderMapper orderMapper;
 
     @GetMapping
-    @Operation(summary = "Get all orders")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        // TODO - Implement pagination
-        return ResponseEntity.ok(orderService.getAllOrders());
+    @Operation(summary = "Get all orders",
+            description = "Keyset paginated by id. Pass nextCursor back as cursor to fetch the next page. "
+                    + "Supports If-None-Match.")
+    public ResponseEntity<CursorPage<OrderResponse>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest
+    ) {
+        if (notModified(orderService.getOrdersPageVersion(cursor, size), webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(orderService.getAllOrders(cursor, size));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get order by ID")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    @Operation(summary = "Get order by ID", description = "Supports If-None-Match and If-Modified-Since.")
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id, WebRequest webRequest) {
+        if (notModified(orderService.getOrderVersion(id), webRequest)) {
+            return null;
+        }
         return ResponseEntity.ok(orderService.getOrderById(id));
     }
 
     @GetMapping("/{id}/items")
-    public ResponseEntity<List<OrderItem>> getOrderItems(@PathVariable Long id) {
+    public ResponseEntity<List<OrderItemResponse>> getOrderItems(@PathVariable Long id, WebRequest webRequest) {
+        if (notModified(orderService.getOrderVersion(id), webRequest)) {
+            return null;
+        }
         return ResponseEntity.ok(orderService.getOrderItems(id));
     }
 
@@ -54,6 +72,16 @@ public class OrderController {
                 .body(orderMapper.toResponse(order));
     }
 
+    @PostMapping("/checkout")
+    @Operation(summary = "Create an order with all its items",
+            description = "Validates every line and reserves stock for all products in one transaction. "
+                    + "Lines for the same product are merged.")
+    public ResponseEntity<OrderResponse> checkout(@Valid @RequestBody CheckoutRequest request) {
+        Order order = orderService.checkout(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(orderMapper.toResponse(order));
+    }
+
     @PostMapping("/{orderId}/items")
     public ResponseEntity<OrderItemResponse> addItemToOrder(
             @PathVariable Long orderId,
@@ -67,8 +95,8 @@ public class OrderController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Update order")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderUpdateRequest order) {
-        return ResponseEntity.ok(orderService.updateOrder(id, order));
+    public ResponseEntity<OrderResponse> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderUpdateRequest order) {
+        return ResponseEntity.ok(orderMapper.toResponse(orderService.updateOrder(id, order)));
     }
 
     @PutMapping("/{orderId}/items/{itemId}")
@@ -97,4 +125,9 @@ public class OrderController {
         orderService.deleteOrderItem(orderId, itemId);
         return ResponseEntity.noContent().build();
     }
+
+    // Checks the validators before the response is loaded, also sets ETag and Last-Modified on the response
+    private static boolean notModified(ResourceVersion version, WebRequest webRequest) {
+        return webRequest.checkNotModified(version.getEtag(), version.getLastModified());
+    }
 }
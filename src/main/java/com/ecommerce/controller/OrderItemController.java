@@ -1,6 +1,7 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.response.CursorPage;
 import com.ecommerce.model.response.OrderItemResponse;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
 import com.ecommerce.service.OrderItemService;
@@ -11,8 +12,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/order-items")
 @RequiredArgsConstructor
@@ -21,15 +20,18 @@ public class OrderItemController {
     private final OrderItemService orderItemService;
 
     @GetMapping
-    @Operation(summary = "Get all order items")
-    public ResponseEntity<List<OrderItem>> getAllOrderItems() {
-        // TODO - Implement pagination
-        return ResponseEntity.ok(orderItemService.getAllOrderItems());
+    @Operation(summary = "Get all order items",
+            description = "Keyset paginated by id. Pass nextCursor back as cursor to fetch the next page.")
+    public ResponseEntity<CursorPage<OrderItemResponse>> getAllOrderItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(orderItemService.getAllOrderItems(cursor, size));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get order item by ID")
-    public ResponseEntity<OrderItem> getOrderItemById(@PathVariable Long id) {
+    public ResponseEntity<OrderItemResponse> getOrderItemById(@PathVariable Long id) {
         return ResponseEntity.ok(orderItemService.getOrderItemById(id));
     }
 
@@ -1,18 +1,26 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.model.response.JsonPayload;
+import com.ecommerce.model.response.ResourceVersion;
+import com.ecommerce.service.ProductJsonService;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.util.EtagUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -20,25 +28,48 @@ import java.util.List;
 @Tag(name = "Products", description = "Product management APIs")
 public class ProductController {
     private final ProductService productService;
+    private final ProductJsonService productJsonService;
 
     @GetMapping
-    @Operation(summary = "Get all products")
+    @Operation(summary = "Get all products",
+            description = "Keyset paginated by id. Pass nextCursor back as cursor to fetch the next page.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved list")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
-    public ResponseEntity<List<Product>> getAllProducts() {
-        // TODO - Implement pagination
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        return json(productJsonService.getProductPage(cursor, size), acceptEncoding, webRequest);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved product"),
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved product",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<byte[]> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        // Revalidation is answered from the version, the product is only loaded when the client's copy is stale
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null
+                && notModified(productJsonService.getProductVersion(id), ifNoneMatch, acceptEncoding, webRequest)) {
+            return null;
+        }
+        return json(productJsonService.getProduct(id), acceptEncoding, webRequest);
     }
 
     @PostMapping
@@ -73,6 +104,34 @@ public class ProductController {
         return ResponseEntity.ok(productService.patchProduct(id, product));
     }
 
+    @PutMapping("/{id}/stock-buckets")
+    @Operation(summary = "Shard product stock",
+            description = "Splits the stock of a hot product across several bucket rows so concurrent orders "
+                    + "do not contend on one row. Reads of the product then sum the buckets.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock sharded successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid bucket count"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Stock already sharded")
+    })
+    public ResponseEntity<Product> enableStockSharding(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int buckets
+    ) {
+        return ResponseEntity.ok(productService.enableStockSharding(id, buckets));
+    }
+
+    @DeleteMapping("/{id}/stock-buckets")
+    @Operation(summary = "Merge sharded product stock back into the product row")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock merged successfully"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Stock not sharded")
+    })
+    public ResponseEntity<Product> disableStockSharding(@PathVariable Long id) {
+        return ResponseEntity.ok(productService.disableStockSharding(id));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete product")
     @ApiResponses(value = {
@@ -83,4 +142,49 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Writes a cached, already serialized body, gzipped when the client accepts it and a gzip variant exists.
+    // Answers 304 (null body) when the client already holds the same representation.
+    private static ResponseEntity<byte[]> json(JsonPayload payload, String acceptEncoding, WebRequest webRequest) {
+        boolean gzip = payload.getGzip() != null && acceptsGzip(acceptEncoding);
+        String etag = payload.getGzip() == null ? payload.getEtag()
+                : gzip ? EtagUtil.gzip(payload.getEtag()) : EtagUtil.identity(payload.getEtag());
+        if (webRequest.checkNotModified(etag, payload.getLastModified())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (payload.getGzip() == null) {
+            return response.body(payload.getJson());
+        }
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return response.body(payload.getJson());
+    }
+
+    // The plain tag is only sent for bodies without a gzip variant, so it matches whatever the client accepts.
+    // Otherwise the client must hold the tag of the coding it would get now.
+    private static boolean notModified(ResourceVersion version, String ifNoneMatch, String acceptEncoding,
+                                       WebRequest webRequest) {
+        String etag = version.getEtag();
+        if (!ifNoneMatch.contains(etag)) {
+            etag = acceptsGzip(acceptEncoding) ? EtagUtil.gzip(etag) : EtagUtil.identity(etag);
+        }
+        return ifNoneMatch.contains(etag) && webRequest.checkNotModified(etag, version.getLastModified());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
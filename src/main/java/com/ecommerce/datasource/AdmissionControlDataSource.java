@@ -0,0 +1,131 @@
+package com.ecommerce.datasource;
+
+import com.ecommerce.limiter.RequestClass;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes a permit from the {@link AdmissionGate} before a connection is borrowed and returns it when the connection
+ * is closed, so at most as many threads as the gate allows are inside the pool or holding a connection.
+ * The permit is requested for the {@link RequestClass} of the current thread.
+ */
+public class AdmissionControlDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final AdmissionGate gate;
+
+    public AdmissionControlDataSource(DataSource target, AdmissionGate gate) {
+        super(target);
+        this.gate = gate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        RequestClass requestClass = admit();
+        try {
+            return guarded(super.getConnection(), requestClass);
+        } catch (SQLException | RuntimeException e) {
+            gate.release(requestClass);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        RequestClass requestClass = admit();
+        try {
+            return guarded(super.getConnection(username, password), requestClass);
+        } catch (SQLException | RuntimeException e) {
+            gate.release(requestClass);
+            throw e;
+        }
+    }
+
+    // Replaces the wrapped pool as the bean, so the pool is closed through it
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private RequestClass admit() throws SQLException {
+        RequestClass requestClass = RequestClass.current();
+        try {
+            if (!gate.acquire(requestClass)) {
+                throw new SQLTransientConnectionException("No database admission permit for "
+                        + requestClass.propertyName() + " within " + gate.getLane(requestClass).timeout().toMillis()
+                        + "ms (" + gate.getQueueLength(requestClass) + " waiting)");
+            }
+            return requestClass;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for database admission", e);
+        }
+    }
+
+    private Connection guarded(Connection connection, RequestClass requestClass) {
+        return (Connection) Proxy.newProxyInstance(
+                AdmissionControlDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ReleaseOnClose(connection, gate, requestClass));
+    }
+
+    // Releases the permit on the first close only, a connection may be closed more than once
+    private static final class ReleaseOnClose implements InvocationHandler {
+        private final Connection target;
+        private final AdmissionGate gate;
+        private final RequestClass requestClass;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnClose(Connection target, AdmissionGate gate, RequestClass requestClass) {
+            this.target = target;
+            this.gate = gate;
+            this.requestClass = requestClass;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            gate.release(requestClass);
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
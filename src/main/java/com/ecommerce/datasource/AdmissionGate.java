@@ -0,0 +1,234 @@
+package com.ecommerce.datasource;
+
+import com.ecommerce.limiter.RequestClass;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Priority gate in front of the connection pool. With virtual threads there is no worker pool to bound how many
+ * requests reach the database, so thousands of threads would otherwise contend inside the pool at once.
+ * <p>
+ * Each {@link RequestClass} is a bulkhead: it may hold at most its own number of permits, and waits in its own
+ * FIFO queue with its own timeout. A freed permit goes to the next waiter of one of the classes below their cap,
+ * chosen by smooth weighted round robin, so higher classes get most of the freed permits without starving the rest.
+ * The time waiters spend queued is recorded per class.
+ */
+public class AdmissionGate {
+
+    /**
+     * Settings of one class: share of freed permits, most permits it may hold, and how long its requests wait.
+     */
+    public record Lane(int weight, int maxPermits, Duration timeout) {
+    }
+
+    private final int size;
+    private final Map<RequestClass, LaneState> lanes = new EnumMap<>(RequestClass.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private int inUse;
+
+    public AdmissionGate(int size, Map<RequestClass, Lane> lanes) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Admission permits must be positive: " + size);
+        }
+        this.size = size;
+        for (RequestClass requestClass : RequestClass.values()) {
+            Lane lane = lanes.get(requestClass);
+            if (lane == null || lane.weight() < 1 || lane.maxPermits() < 1) {
+                throw new IllegalArgumentException("Invalid admission settings for " + requestClass + ": " + lane);
+            }
+            this.lanes.put(requestClass, new LaneState(lane));
+        }
+    }
+
+    /**
+     * Lanes from the {@link RequestClass} defaults, classes without a timeout of their own use {@code timeout}.
+     */
+    public static Map<RequestClass, Lane> defaultLanes(int size, Duration timeout) {
+        Map<RequestClass, Lane> lanes = new EnumMap<>(RequestClass.class);
+        for (RequestClass requestClass : RequestClass.values()) {
+            lanes.put(requestClass, new Lane(requestClass.weight(),
+                    Math.max(1, (int) Math.ceil(size * requestClass.maxShare())),
+                    requestClass.timeout() == null ? timeout : requestClass.timeout()));
+        }
+        return lanes;
+    }
+
+    /**
+     * Waits up to the timeout of the class for a permit. Returns false when none became available.
+     */
+    public boolean acquire(RequestClass requestClass) throws InterruptedException {
+        LaneState lane = lanes.get(requestClass);
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (lane.waiters.isEmpty() && inUse < size && lane.inUse < lane.settings.maxPermits()) {
+                inUse++;
+                lane.inUse++;
+                lane.admitted(0);
+                return true;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            lane.waiters.addLast(waiter);
+            long remaining = lane.settings.timeout().toNanos();
+            try {
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (!waiter.granted) {
+                    lane.waiters.remove(waiter);
+                    throw e;
+                }
+                Thread.currentThread().interrupt();
+            }
+            long waited = System.nanoTime() - start;
+            if (waiter.granted) {
+                lane.admitted(waited);
+                return true;
+            }
+            lane.waiters.remove(waiter);
+            lane.timedOut(waited);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(RequestClass requestClass) {
+        LaneState lane = lanes.get(requestClass);
+        lock.lock();
+        try {
+            inUse--;
+            lane.inUse--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hands free permits to waiters, picking the class by smooth weighted round robin. Called with the lock held.
+    private void dispatch() {
+        while (inUse < size) {
+            LaneState next = null;
+            int totalWeight = 0;
+            for (LaneState lane : lanes.values()) {
+                if (lane.waiters.isEmpty() || lane.inUse >= lane.settings.maxPermits()) {
+                    continue;
+                }
+                lane.currentWeight += lane.settings.weight();
+                totalWeight += lane.settings.weight();
+                if (next == null || lane.currentWeight > next.currentWeight) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            next.currentWeight -= totalWeight;
+            Waiter waiter = next.waiters.removeFirst();
+            waiter.granted = true;
+            inUse++;
+            next.inUse++;
+            waiter.condition.signal();
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getInUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Lane getLane(RequestClass requestClass) {
+        return lanes.get(requestClass).settings;
+    }
+
+    public int getInUse(RequestClass requestClass) {
+        lock.lock();
+        try {
+            return lanes.get(requestClass).inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueLength(RequestClass requestClass) {
+        lock.lock();
+        try {
+            return lanes.get(requestClass).waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmitted(RequestClass requestClass) {
+        return lanes.get(requestClass).admitted.sum();
+    }
+
+    public long getTimedOut(RequestClass requestClass) {
+        return lanes.get(requestClass).timedOut.sum();
+    }
+
+    public Duration getTotalWait(RequestClass requestClass) {
+        return Duration.ofNanos(lanes.get(requestClass).totalWaitNanos.sum());
+    }
+
+    public Duration getMaxWait(RequestClass requestClass) {
+        return Duration.ofNanos(lanes.get(requestClass).maxWaitNanos.get());
+    }
+
+    private static final class LaneState {
+        private final Lane settings;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private int inUse;
+        private int currentWeight;
+
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        private LaneState(Lane settings) {
+            this.settings = settings;
+        }
+
+        private void admitted(long waitedNanos) {
+            admitted.increment();
+            waited(waitedNanos);
+        }
+
+        private void timedOut(long waitedNanos) {
+            timedOut.increment();
+            waited(waitedNanos);
+        }
+
+        private void waited(long waitedNanos) {
+            totalWaitNanos.add(waitedNanos);
+            maxWaitNanos.accumulate(waitedNanos);
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
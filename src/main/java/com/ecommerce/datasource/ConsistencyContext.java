@@ -0,0 +1,71 @@
+package com.ecommerce.datasource;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread read-your-writes state used by {@link ReplicaRoutingDataSource}.
+ * A request that carries a recent consistency token, or that has committed a write itself,
+ * reads from the primary. Threads without a request context (schedulers, startup jobs) route purely
+ * on the read-only flag of their transaction.
+ */
+public final class ConsistencyContext {
+
+    private static final ThreadLocal<RequestState> REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FORCED_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private ConsistencyContext() {
+    }
+
+    /**
+     * Starts the request scope. {@code onWriteCommitted} receives the commit time of each write transaction.
+     */
+    public static void begin(boolean primaryRequired, LongConsumer onWriteCommitted) {
+        REQUEST.set(new RequestState(primaryRequired, onWriteCommitted));
+    }
+
+    public static void clear() {
+        REQUEST.remove();
+    }
+
+    public static boolean isPrimaryRequired() {
+        RequestState state = REQUEST.get();
+        return FORCED_PRIMARY.get() || (state != null && state.primaryRequired);
+    }
+
+    /**
+     * Called after a read-write transaction commits: later reads of the same request must see it.
+     */
+    public static void writeCommitted(long committedAt) {
+        RequestState state = REQUEST.get();
+        if (state != null) {
+            state.primaryRequired = true;
+            state.onWriteCommitted.accept(committedAt);
+        }
+    }
+
+    /**
+     * Runs a read on the primary regardless of the request state. Used for reads whose result outlives the
+     * request, such as cache fills, which must not capture replica lag.
+     * Only effective when called before the transaction has fetched its connection.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean previous = FORCED_PRIMARY.get();
+        FORCED_PRIMARY.set(true);
+        try {
+            return read.get();
+        } finally {
+            FORCED_PRIMARY.set(previous);
+        }
+    }
+
+    private static final class RequestState {
+        private boolean primaryRequired;
+        private final LongConsumer onWriteCommitted;
+
+        private RequestState(boolean primaryRequired, LongConsumer onWriteCommitted) {
+            this.primaryRequired = primaryRequired;
+            this.onWriteCommitted = onWriteCommitted;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.datasource;
+
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+/**
+ * Reports every committed read-write transaction to the {@link ConsistencyContext} of the current request.
+ * Registered with the transaction manager by Spring Boot as a TransactionExecutionListener bean.
+ */
+public class ConsistencyTokenListener implements TransactionExecutionListener {
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            ConsistencyContext.writeCommitted(System.currentTimeMillis());
+        }
+    }
+}
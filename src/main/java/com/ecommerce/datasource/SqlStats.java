@@ -0,0 +1,69 @@
+package com.ecommerce.datasource;
+
+import java.time.Duration;
+
+/**
+ * Per-thread count of the JDBC statements Hibernate executes, and the time spent in them.
+ * A scope is opened per request by {@link com.ecommerce.filter.SqlStatsFilter}, and by tests that assert query counts.
+ * Scopes nest: when an inner scope ends, its totals are added to the outer one.
+ * Statements outside any scope (schedulers, startup) and plain JdbcTemplate statements are not counted.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStats() {
+    }
+
+    public static Scope begin() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static void end(Scope scope) {
+        CURRENT.set(scope.parent);
+        if (scope.parent != null) {
+            scope.parent.add(scope.statements, scope.nanos);
+        }
+    }
+
+    /**
+     * One statement or batch sent to the database, taking {@code nanos}.
+     */
+    static void record(long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.add(1, nanos);
+        }
+    }
+
+    // Only touched by the thread that owns it
+    public static final class Scope {
+        private final Scope parent;
+        private long statements;
+        private long nanos;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void add(long statements, long nanos) {
+            this.statements += statements;
+            this.nanos += nanos;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public Duration getTime() {
+            return Duration.ofNanos(nanos);
+        }
+
+        public void reset() {
+            statements = 0;
+            nanos = 0;
+        }
+    }
+}
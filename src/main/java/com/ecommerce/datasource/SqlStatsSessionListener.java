@@ -0,0 +1,33 @@
+package com.ecommerce.datasource;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Feeds {@link SqlStats} from Hibernate's JDBC events. Registered for every session through
+ * {@code hibernate.session.events.auto}, one instance per session.
+ */
+public class SqlStatsSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStats.record(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStats.record(System.nanoTime() - batchStart);
+    }
+}
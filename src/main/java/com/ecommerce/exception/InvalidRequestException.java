@@ -0,0 +1,15 @@
+package com.ecommerce.exception;
+
+/**
+ * A request the client has to correct (malformed cursor, unknown format, bad input file), answered with 400.
+ * Other {@link IllegalArgumentException}s are bugs and stay 500.
+ */
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.filter;
+
+import com.ecommerce.exception.ErrorResponse;
+import com.ecommerce.limiter.AimdLimiter;
+import com.ecommerce.limiter.EndpointGroup;
+import com.ecommerce.limiter.EndpointLimiters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Load shedding. Each API request takes a slot from the limiter of its {@link EndpointGroup}, and when the group
+ * is at its limit the request is answered at once with 503 and {@code Retry-After} instead of queueing for
+ * a thread or a connection.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final EndpointLimiters limiters;
+    private final ObjectMapper objectMapper;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(EndpointLimiters limiters, ObjectMapper objectMapper, Duration retryAfter) {
+        this.limiters = limiters;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request);
+        AimdLimiter limiter = group == null ? null : limiters.get(group);
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            reject(request, response, group);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(start);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, EndpointGroup group)
+            throws IOException {
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Too many concurrent " + group.propertyName() + " requests, retry later",
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
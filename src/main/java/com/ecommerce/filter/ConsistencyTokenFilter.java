@@ -0,0 +1,52 @@
+package com.ecommerce.filter;
+
+import com.ecommerce.datasource.ConsistencyContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes across requests. Responses of requests that committed a write carry
+ * {@value #HEADER} (commit time in epoch millis). Clients send it back, and while it is younger than the
+ * configured replica lag their reads go to the primary.
+ */
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Consistency-Token";
+
+    private final long maxReplicaLagMillis;
+
+    public ConsistencyTokenFilter(Duration maxReplicaLag) {
+        this.maxReplicaLagMillis = maxReplicaLag.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Services commit before the controller writes the body, so the header can still be set
+        ConsistencyContext.begin(isRecent(request.getHeader(HEADER)),
+                committedAt -> response.setHeader(HEADER, Long.toString(committedAt)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ConsistencyContext.clear();
+        }
+    }
+
+    boolean isRecent(String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        try {
+            long age = System.currentTimeMillis() - Long.parseLong(token.trim());
+            // Tokens from the future beyond the lag window are not ours, ignore them instead of pinning the primary
+            return age < maxReplicaLagMillis && age > -maxReplicaLagMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
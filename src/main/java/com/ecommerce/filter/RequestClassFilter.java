@@ -0,0 +1,28 @@
+package com.ecommerce.filter;
+
+import com.ecommerce.limiter.RequestClass;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Classifies each request into a {@link RequestClass} for the rest of its thread, so the database admission gate
+ * can prioritize its connections.
+ */
+public class RequestClassFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass.set(RequestClass.of(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestClass.clear();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.filter;
+
+import com.ecommerce.datasource.SqlStats;
+import com.ecommerce.limiter.EndpointGroup;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of each API request and warns when an endpoint runs more than its budget,
+ * which is how N+1 fetches show up. Budgets are per {@link EndpointGroup} with a default for the rest.
+ * With headers enabled the response also carries {@value #COUNT_HEADER} and {@value #TIME_HEADER}; the body is
+ * then buffered so the headers can be set after the handler ran, so this is meant for debugging only.
+ * Admin responses never get the headers: export downloads are streamed from disk and must not end up in the heap.
+ */
+@Log4j2
+public class SqlStatsFilter extends OncePerRequestFilter {
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    private final int defaultBudget;
+    private final Map<EndpointGroup, Integer> budgets;
+    private final boolean headers;
+
+    public SqlStatsFilter(int defaultBudget, Map<EndpointGroup, Integer> budgets, boolean headers) {
+        this.defaultBudget = defaultBudget;
+        this.budgets = Map.copyOf(budgets);
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request);
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ContentCachingResponseWrapper buffered =
+                headers && group != EndpointGroup.ADMIN && group != EndpointGroup.ADMIN_BULK
+                ? new ContentCachingResponseWrapper(response)
+                : null;
+        SqlStats.Scope scope = SqlStats.begin();
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            SqlStats.end(scope);
+            checkBudget(request, group, scope);
+            if (buffered != null) {
+                buffered.setHeader(COUNT_HEADER, Long.toString(scope.getStatements()));
+                buffered.setHeader(TIME_HEADER, Long.toString(scope.getTime().toMillis()));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, EndpointGroup group, SqlStats.Scope scope) {
+        int budget = budgets.getOrDefault(group, defaultBudget);
+        if (scope.getStatements() > budget) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            log.warn("{} {} ran {} SQL statements in {} ms, budget is {}", request.getMethod(),
+                    pattern != null ? pattern : request.getRequestURI(), scope.getStatements(),
+                    scope.getTime().toMillis(), budget);
+        }
+    }
+}
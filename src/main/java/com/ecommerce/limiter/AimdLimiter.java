@@ -0,0 +1,100 @@
+package com.ecommerce.limiter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit adjusted by additive increase, multiplicative decrease on observed latency.
+ * <p>
+ * A request slower than the latency threshold cuts the limit by the backoff ratio. Requests that were already
+ * running at the last cut do not cut it again, so one slow period counts once rather than once per request.
+ * A fast request raises the limit by one while at least half of it is in use. All state is in atomics,
+ * acquiring and releasing never block.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // No cut yet: any request may cause the first one
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                    "Limits must satisfy 1 <= min <= initial <= max: " + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    /**
+     * A limiter that stays at {@code limit}: with min, initial and max equal, latency never moves it.
+     */
+    public static AimdLimiter fixed(int limit) {
+        return new AimdLimiter(limit, limit, limit, Duration.ofNanos(Long.MAX_VALUE), 0.5);
+    }
+
+    /**
+     * Takes a slot if fewer requests than the limit are in flight. Returns false, without waiting, otherwise.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a request that started at {@code startNanos} ({@link System#nanoTime()}) and adjusts the limit.
+     */
+    public void release(long startNanos) {
+        long now = System.nanoTime();
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (now - startNanos > latencyThresholdNanos) {
+            long lastDecrease = lastDecreaseNanos.get();
+            if (startNanos - lastDecrease >= 0 && lastDecreaseNanos.compareAndSet(lastDecrease, now)) {
+                limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+            }
+        } else if (inFlightBefore * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
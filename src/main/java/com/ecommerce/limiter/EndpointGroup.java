@@ -0,0 +1,87 @@
+package com.ecommerce.limiter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Endpoints that share a concurrency limit. Groups are split by what they cost the database,
+ * so a slow catalog scan cannot use up the concurrency that order writes need.
+ * The defaults can be overridden with {@code ecommerce.limiter.<property-name>.*}.
+ * <p>
+ * Imports and export downloads take as long as the transfer does, so their latency says nothing about load. They form
+ * {@link #ADMIN_BULK}, which has a fixed limit, and cannot drive the adaptive limit of the other admin endpoints down.
+ */
+public enum EndpointGroup {
+    CATALOG_READ(50, 400, Duration.ofMillis(250)),
+    CATALOG_WRITE(10, 100, Duration.ofMillis(500)),
+    ORDER_READ(20, 200, Duration.ofMillis(300)),
+    ORDER_WRITE(20, 200, Duration.ofMillis(500)),
+    ADMIN(4, 20, Duration.ofSeconds(5)),
+    ADMIN_BULK(2);
+
+    private static final String API = "/api/v1/";
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final Duration latencyThreshold;
+
+    EndpointGroup(int initialLimit, int maxLimit, Duration latencyThreshold) {
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    EndpointGroup(int fixedLimit) {
+        this(fixedLimit, fixedLimit, null);
+    }
+
+    /**
+     * False for groups with a fixed limit, which have no latency threshold.
+     */
+    public boolean isAdaptive() {
+        return latencyThreshold != null;
+    }
+
+    public int initialLimit() {
+        return initialLimit;
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    public Duration latencyThreshold() {
+        return latencyThreshold;
+    }
+
+    /**
+     * Name used in properties, e.g. {@code catalog-read}.
+     */
+    public String propertyName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * The group of an API request, null for requests that are not limited (static content, API docs).
+     */
+    public static EndpointGroup of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(API)) {
+            return null;
+        }
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        String resource = path.substring(API.length());
+        if (resource.startsWith("admin")) {
+            return resource.endsWith("/import") || resource.endsWith("/file") ? ADMIN_BULK : ADMIN;
+        }
+        if (resource.startsWith("products")) {
+            return read ? CATALOG_READ : CATALOG_WRITE;
+        }
+        if (resource.startsWith("orders") || resource.startsWith("order-items")) {
+            return read ? ORDER_READ : ORDER_WRITE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.limiter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link AimdLimiter} per {@link EndpointGroup}.
+ */
+public class EndpointLimiters {
+
+    private final Map<EndpointGroup, AimdLimiter> limiters;
+
+    public EndpointLimiters(Map<EndpointGroup, AimdLimiter> limiters) {
+        this.limiters = new EnumMap<>(limiters);
+    }
+
+    public AimdLimiter get(EndpointGroup group) {
+        return limiters.get(group);
+    }
+
+    public Map<EndpointGroup, AimdLimiter> all() {
+        return Map.copyOf(limiters);
+    }
+}
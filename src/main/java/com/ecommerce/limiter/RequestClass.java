@@ -0,0 +1,98 @@
+package com.ecommerce.limiter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Business priority of a request, used by the database admission gate to decide who gets a connection first.
+ * <p>
+ * Higher classes get a larger share of freed connections (weight), may hold more of the pool (max share) and
+ * wait longer before giving up (timeout, null for the gate's default). Lower classes are capped to a part of the pool,
+ * so under saturation catalog reads and admin lists queue and time out while checkouts still get connections.
+ * Catalog writes, imports and work outside a request (schedulers, export jobs) run as {@link #MAINTENANCE}: they are
+ * capped like admin lists but wait as long as the gate's default timeout, since failing them is costlier than a retry.
+ */
+public enum RequestClass {
+    CHECKOUT(8, 1.0, null),
+    ORDER_MUTATION(4, 0.8, null),
+    CATALOG_READ(2, 0.6, Duration.ofSeconds(5)),
+    MAINTENANCE(1, 0.3, null),
+    ADMIN_LIST(1, 0.3, Duration.ofSeconds(2));
+
+    private static final Pattern CHECKOUT_PATH = Pattern.compile("/api/v1/orders(/checkout|/\\d+/items)?/?");
+    private static final Pattern ORDER_PATH = Pattern.compile("/api/v1/(orders|order-items)(/.*)?");
+    private static final Pattern LIST_PATH = Pattern.compile("/api/v1/(orders|order-items)/?");
+    private static final Pattern PRODUCT_PATH = Pattern.compile("/api/v1/products(/.*)?");
+    private static final Pattern IMPORT_PATH = Pattern.compile("/api/v1/admin/.+/import/?");
+
+    private static final ThreadLocal<RequestClass> CURRENT = new ThreadLocal<>();
+
+    private final int weight;
+    private final double maxShare;
+    private final Duration timeout;
+
+    RequestClass(int weight, double maxShare, Duration timeout) {
+        this.weight = weight;
+        this.maxShare = maxShare;
+        this.timeout = timeout;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public double maxShare() {
+        return maxShare;
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * Name used in properties, e.g. {@code order-mutation}.
+     */
+    public String propertyName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * Checkout is creating an order or adding items to one, where revenue is made. Other order writes are
+     * order mutations. Product reads and reads of a single order are catalog reads. Product writes and imports are
+     * maintenance. Order lists and the rest of the admin API rank last.
+     */
+    public static RequestClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (ORDER_PATH.matcher(path).matches()) {
+            if (!read) {
+                return "POST".equals(request.getMethod()) && CHECKOUT_PATH.matcher(path).matches()
+                        ? CHECKOUT : ORDER_MUTATION;
+            }
+            return LIST_PATH.matcher(path).matches() ? ADMIN_LIST : CATALOG_READ;
+        }
+        if (PRODUCT_PATH.matcher(path).matches()) {
+            return read ? CATALOG_READ : MAINTENANCE;
+        }
+        return IMPORT_PATH.matcher(path).matches() ? MAINTENANCE : ADMIN_LIST;
+    }
+
+    /**
+     * Class of the request on this thread, {@link #MAINTENANCE} outside of requests.
+     */
+    public static RequestClass current() {
+        RequestClass current = CURRENT.get();
+        return current == null ? MAINTENANCE : current;
+    }
+
+    public static void set(RequestClass requestClass) {
+        CURRENT.set(requestClass);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
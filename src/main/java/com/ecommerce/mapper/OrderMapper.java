@@ -2,11 +2,18 @@ package com.ecommerce.mapper;
 
 import com.ecommerce.model.entity.Order;
 import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.projection.OrderLineRow;
 import com.ecommerce.model.response.OrderItemResponse;
 import com.ecommerce.model.response.OrderResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @RequiredArgsConstructor
 public class OrderMapper {
@@ -29,6 +36,43 @@ public class OrderMapper {
                 .build();
     }
 
+    /**
+     * Groups flat order line rows (ordered by order id) into one response per order.
+     * Orders whose persisted total has not been backfilled yet fall back to the sum of their rows.
+     */
+    public List<OrderResponse> toResponses(List<OrderLineRow> rows) {
+        Map<Long, OrderResponse> orders = new LinkedHashMap<>();
+        for (OrderLineRow row : rows) {
+            OrderResponse order = orders.computeIfAbsent(row.getOrderId(), id -> OrderResponse.builder()
+                    .id(id)
+                    .customerName(row.getCustomerName())
+                    .customerEmail(row.getCustomerEmail())
+                    .status(row.getStatus().name())
+                    .totalAmount(row.getTotalAmount() != null ? row.getTotalAmount() : BigDecimal.ZERO)
+                    .items(new ArrayList<>())
+                    .build());
+
+            if (row.getItemId() != null) {
+                order.getItems().add(toItemResponse(row));
+                if (row.getTotalAmount() == null) {
+                    order.setTotalAmount(order.getTotalAmount().add(row.getSubtotal()));
+                }
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    public OrderItemResponse toItemResponse(OrderLineRow row) {
+        return OrderItemResponse.builder()
+                .id(row.getItemId())
+                .productId(row.getProductId())
+                .productName(row.getProductName())
+                .quantity(row.getQuantity())
+                .unitPrice(row.getUnitPrice())
+                .subtotal(row.getSubtotal())
+                .build();
+    }
+
     public OrderItemResponse toItemResponse(OrderItem item) {
         return OrderItemResponse.builder()
                 .id(item.getId())
@@ -21,7 +21,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Customer name is required")
@@ -43,6 +44,12 @@ public class Order {
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    // Sum of item subtotals, changed only through OrderRepository.addToTotalAmount so that
+    // concurrent item changes cannot overwrite each other. Null until backfilled for orders predating the column.
+    @Column(precision = 12, scale = 2, updatable = false)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -76,10 +83,4 @@ public class Order {
         orderItems.remove(item);
         item.setOrder(null);
     }
-
-    public BigDecimal getTotalAmount() {
-        return orderItems.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
 }
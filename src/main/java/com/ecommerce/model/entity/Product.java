@@ -1,5 +1,7 @@
 package com.ecommerce.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -15,11 +17,12 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -42,6 +45,11 @@ public class Product {
     @Column(nullable = false)
     private Integer stockQuantity;
 
+    // Stock is split across product_stock_buckets, toggled through /products/{id}/stock-buckets only
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Boolean stockSharded;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -52,6 +60,14 @@ public class Product {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (stockSharded == null) {
+            stockSharded = false;
+        }
+    }
+
+    @JsonIgnore
+    public boolean isStockShardingEnabled() {
+        return Boolean.TRUE.equals(stockSharded);
     }
 
     @PreUpdate
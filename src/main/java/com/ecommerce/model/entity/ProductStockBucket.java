@@ -0,0 +1,39 @@
+package com.ecommerce.model.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slice of a sharded product's stock. The product's available stock is the sum of its buckets.
+ */
+@Entity
+@Table(name = "product_stock_buckets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStockBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_stock_buckets_seq")
+    @SequenceGenerator(name = "product_stock_buckets_seq", sequenceName = "product_stock_buckets_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer bucketNo;
+
+    @NotNull
+    @Min(value = 0)
+    @Column(nullable = false)
+    private Integer quantity;
+}
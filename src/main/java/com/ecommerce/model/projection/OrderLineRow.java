@@ -0,0 +1,31 @@
+package com.ecommerce.model.projection;
+
+import com.ecommerce.model.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the order read model: order columns repeated for each of its items.
+ * Built by JPQL constructor expressions, so reads never hydrate managed entities.
+ * Item columns are null for an order without items.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderLineRow {
+
+    private Long orderId;
+    private String customerName;
+    private String customerEmail;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private Long itemId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal subtotal;
+}
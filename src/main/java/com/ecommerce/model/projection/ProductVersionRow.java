@@ -0,0 +1,28 @@
+package com.ecommerce.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version columns of one product. Bucket reservations of sharded products do not touch updatedAt,
+ * so the effective stock is part of the version too.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductVersionRow {
+
+    private Long id;
+    private LocalDateTime updatedAt;
+    private Integer stockQuantity;
+    private Boolean stockSharded;
+    private Long bucketQuantity;
+
+    // Same stock the product responses show, see StockBucketService#toShardedView
+    public int effectiveStock() {
+        return Boolean.TRUE.equals(stockSharded) ? bucketQuantity.intValue() : stockQuantity;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version columns of one aggregate row: its own updatedAt and the latest updatedAt of the rows it is joined with
+ * in responses (null when there are none).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VersionRow {
+
+    private Long id;
+    private LocalDateTime updatedAt;
+    private LocalDateTime relatedUpdatedAt;
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.model.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * An order with all its lines, created in one call. Lines for the same product are merged.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutRequest {
+    public static final int MAX_ITEMS = 100;
+
+    @NotBlank
+    @Size(max = 100)
+    private String customerName;
+
+    @NotBlank
+    @Email
+    @Size(max = 100)
+    private String customerEmail;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<@Valid OrderItemRequest> items;
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.model.request;
+
+import com.ecommerce.model.entity.Order;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One historical order of a bulk import, one JSON object per NDJSON line.
+ * Items carry the price they were sold at, and importing does not touch product stock.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderImportLine {
+    public static final int MAX_ITEMS = 100;
+
+    @NotBlank
+    @Size(min = 2, max = 100)
+    private String customerName;
+
+    @NotBlank
+    @Email
+    @Size(max = 100)
+    private String customerEmail;
+
+    @NotNull
+    private Order.OrderStatus status;
+
+    // Defaults to the import time
+    @PastOrPresent
+    private LocalDateTime createdAt;
+
+    @NotNull
+    @Size(max = MAX_ITEMS)
+    private List<@NotNull @Valid OrderImportItem> items = new ArrayList<>();
+}
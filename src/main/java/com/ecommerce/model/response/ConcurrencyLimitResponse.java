@@ -0,0 +1,19 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConcurrencyLimitResponse {
+
+    private String group;
+    private int limit;
+    private int inFlight;
+    private long accepted;
+    private long rejected;
+}
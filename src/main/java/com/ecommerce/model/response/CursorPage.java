@@ -0,0 +1,22 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+
+    // Opaque token to pass back as ?cursor= for the next page, null on the last page
+    private String nextCursor;
+}
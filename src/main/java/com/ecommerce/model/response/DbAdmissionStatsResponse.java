@@ -0,0 +1,23 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DbAdmissionStatsResponse {
+
+    private String requestClass;
+    private int weight;
+    private int maxPermits;
+    private int inUse;
+    private int waiting;
+    private long admitted;
+    private long timedOut;
+    private double averageWaitMs;
+    private double maxWaitMs;
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportJobResponse {
+
+    private String id;
+    private String format;
+    private String status;
+    private long ordersWritten;
+    private long sizeBytes;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one import transaction. A chunk that failed to write is rolled back as a whole.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportChunkResult {
+
+    private int chunk;
+    private long firstLine;
+    private long lastLine;
+    private int ordersImported;
+    private int itemsImported;
+    private int ordersRejected;
+    private long durationMs;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.model.response;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A response body serialized once to UTF-8 JSON, kept in a cache and written to clients as is.
+ */
+@Getter
+@RequiredArgsConstructor
+public class JsonPayload {
+
+    private final byte[] json;
+
+    // Pre-compressed variant, null when the body is too small for gzip to pay off
+    private final byte[] gzip;
+
+    // Validators of the serialized state, lastModified is -1 when it cannot be trusted
+    private final String etag;
+    private final long lastModified;
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderImportReport {
+
+    private long linesRead;
+    private long ordersImported;
+    private long itemsImported;
+    private long ordersRejected;
+    @Builder.Default
+    private List<ImportChunkResult> chunks = new ArrayList<>();
+    // Capped, see ecommerce.orders.import.max-reported-errors
+    @Builder.Default
+    private List<ImportLineError> errors = new ArrayList<>();
+}
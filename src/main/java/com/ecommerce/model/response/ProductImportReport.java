@@ -0,0 +1,27 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportReport {
+
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    // Rows skipped because a later row in the file sets the same name
+    private long duplicates;
+    private long rejected;
+    private long durationMs;
+    // Capped, see ecommerce.products.import.max-reported-errors
+    @Builder.Default
+    private List<ImportLineError> errors = new ArrayList<>();
+}
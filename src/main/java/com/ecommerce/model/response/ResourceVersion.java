@@ -0,0 +1,18 @@
+package com.ecommerce.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Validators of a response, computed from version columns only so that a conditional GET
+ * can be answered with 304 before the response itself is loaded.
+ */
+@Data
+@AllArgsConstructor
+public class ResourceVersion {
+
+    private String etag;
+
+    // Epoch millis, -1 when not available
+    private long lastModified;
+}
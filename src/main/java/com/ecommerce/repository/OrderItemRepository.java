@@ -1,10 +1,35 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.response.OrderItemResponse;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    String ITEM_RESPONSE = "select new com.ecommerce.model.response.OrderItemResponse("
+            + "i.id, p.id, p.name, i.quantity, i.unitPrice, i.subtotal) "
+            + "from OrderItem i join i.product p ";
+
     boolean existsByProductId(Long productId);
+
+    // Mutations: item and product as managed entities
+    @EntityGraph(attributePaths = "product")
+    Optional<OrderItem> findWithProductById(Long id);
+
+    // Read model, no managed entities
+    @Query(ITEM_RESPONSE + "where i.id = :id")
+    Optional<OrderItemResponse> findResponseById(@Param("id") Long id);
+
+    // Keyset pagination: WHERE id > :afterId ORDER BY id LIMIT :limit
+    @Query(ITEM_RESPONSE + "where i.id > :afterId order by i.id")
+    List<OrderItemResponse> findResponsesAfter(@Param("afterId") Long afterId, Limit limit);
 }
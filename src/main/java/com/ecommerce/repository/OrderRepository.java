@@ -1,9 +1,68 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.projection.OrderLineRow;
+import com.ecommerce.model.projection.VersionRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    String ORDER_LINES = "select new com.ecommerce.model.projection.OrderLineRow("
+            + "o.id, o.customerName, o.customerEmail, o.status, o.totalAmount, "
+            + "i.id, p.id, p.name, i.quantity, i.unitPrice, i.subtotal) "
+            + "from Order o left join o.orderItems i left join i.product p ";
+
+    // Order responses show product names, so product changes are part of an order's version
+    String ORDER_VERSIONS = "select new com.ecommerce.model.projection.VersionRow("
+            + "o.id, o.updatedAt, max(p.updatedAt)) "
+            + "from Order o left join o.orderItems i left join i.product p ";
+
+    // Mutations: order, items and their products as managed entities in one joined select
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsById(Long id);
+
+    // Read model for one order, empty when the order does not exist
+    @Query(ORDER_LINES + "where o.id = :id order by i.id")
+    List<OrderLineRow> findLinesByOrderId(@Param("id") Long id);
+
+    // Read model for a keyset page of orders in a single statement: the subquery picks the page of ids
+    @Query(ORDER_LINES + "where o.id in ("
+            + "select o2.id from Order o2 where o2.id > :afterId order by o2.id limit :limit"
+            + ") order by o.id, i.id")
+    List<OrderLineRow> findLinesAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query(ORDER_VERSIONS + "where o.id = :id group by o.id, o.updatedAt")
+    Optional<VersionRow> findVersionById(@Param("id") Long id);
+
+    // Versions of the same page findLinesAfter returns
+    @Query(ORDER_VERSIONS + "where o.id in ("
+            + "select o2.id from Order o2 where o2.id > :afterId order by o2.id limit :limit"
+            + ") group by o.id, o.updatedAt order by o.id")
+    List<VersionRow> findVersionsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    // Atomic in the database so concurrent item changes on one order add up. A NULL total is recomputed from the
+    // flushed items instead: a backfill waiting on the row then skips it, where its sum would come from an older snapshot.
+    @Modifying(flushAutomatically = true)
+    @Query("update Order o set o.totalAmount = case when o.totalAmount is null "
+            + "then coalesce((select sum(i.subtotal) from OrderItem i where i.order.id = o.id), 0) "
+            + "else o.totalAmount + :delta end, "
+            + "o.updatedAt = local datetime where o.id = :id")
+    int addToTotalAmount(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // Recomputes the total of the next chunk of orders that predate the column
+    @Modifying
+    @Query("update Order o set o.totalAmount = coalesce("
+            + "(select sum(i.subtotal) from OrderItem i where i.order.id = o.id), 0) "
+            + "where o.id in (select o2.id from Order o2 where o2.totalAmount is null order by o2.id limit :limit)")
+    int backfillTotalAmounts(@Param("limit") int limit);
 }
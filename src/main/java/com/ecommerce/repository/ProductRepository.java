@@ -1,16 +1,55 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.ProductVersionRow;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Answers conditional GETs and checks cache fills without loading the product
+    @Query("select new com.ecommerce.model.projection.ProductVersionRow(p.id, p.updatedAt, p.stockQuantity, "
+            + "p.stockSharded, (select coalesce(sum(b.quantity), 0) from ProductStockBucket b where b.productId = p.id)) "
+            + "from Product p where p.id = :id")
+    Optional<ProductVersionRow> findVersionById(@Param("id") Long id);
+
+    // SELECT ... FOR UPDATE, only for admin paths that must hold the row. Plain reads use the inherited findById
+    // and stock changes go through the conditional updates below.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    Optional<Product> findById(Long id);
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    // Single statement reservation: the affected row count tells whether there was enough stock
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = local datetime "
+            + "where p.id = :id and p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = local datetime "
+            + "where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("select p.stockSharded from Product p where p.id = :id")
+    boolean isStockSharded(@Param("id") Long id);
+
+    @Query("select p.id from Product p where p.stockSharded = true")
+    List<Long> findStockShardedIds();
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: WHERE id > :afterId ORDER BY id LIMIT :limit
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
@@ -0,0 +1,50 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.entity.ProductStockBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductStockBucketRepository extends JpaRepository<ProductStockBucket, Long> {
+
+    @Query("select b.id from ProductStockBucket b where b.productId = :productId")
+    List<Long> findIdsByProductId(@Param("productId") Long productId);
+
+    // Candidate buckets for a reservation, read without locks; the conditional update decides
+    @Query("select b.id from ProductStockBucket b where b.productId = :productId and b.quantity >= :quantity")
+    List<Long> findIdsWithAtLeast(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Locks every bucket of a product in bucket order, for rebalancing and multi-bucket reservations
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from ProductStockBucket b where b.productId = :productId order by b.bucketNo")
+    List<ProductStockBucket> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    @Query("select coalesce(sum(b.quantity), 0) from ProductStockBucket b where b.productId = :productId")
+    long sumQuantity(@Param("productId") Long productId);
+
+    // Rows of [productId, sum(quantity)] for a page of products
+    @Query("select b.productId, sum(b.quantity) from ProductStockBucket b "
+            + "where b.productId in :productIds group by b.productId")
+    List<Object[]> sumQuantityByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("update ProductStockBucket b set b.quantity = b.quantity - :quantity "
+            + "where b.id = :id and b.quantity >= :quantity")
+    int decrement(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update ProductStockBucket b set b.quantity = b.quantity + :quantity where b.id = :id")
+    int increment(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("delete from ProductStockBucket b where b.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out ids from the entity sequences for rows inserted with plain JDBC.
+ * Every nextval reserves the block of ids ending at the returned value, the same way Hibernate's pooled
+ * optimizer uses it, so JDBC and JPA inserts can share a sequence without handing out an id twice.
+ */
+@Component
+public class SequenceIdAllocator {
+    // allocationSize of the entity sequences, see V4__pooled_id_sequences
+    public static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceSupport sequenceSupport;
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        // The dialect knows how to call nextval on the database in use
+        this.sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+    }
+
+    public long[] nextIds(String sequence, int count) {
+        String nextValSql = sequenceSupport.getSequenceNextValString(sequence);
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Long blockEnd = jdbcTemplate.queryForObject(nextValSql, Long.class);
+            // The first block of a fresh sequence ends at 1
+            for (long id = Math.max(1, blockEnd - BLOCK_SIZE + 1); id <= blockEnd && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+}
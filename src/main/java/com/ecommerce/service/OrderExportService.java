@@ -0,0 +1,365 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.response.ExportJobResponse;
+import com.ecommerce.model.response.OrderItemResponse;
+import com.ecommerce.model.response.OrderExportRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full order dumps written to a temporary file in the background.
+ * <p>
+ * Orders are walked by id in chunks. Each chunk is one short read-only transaction whose rows (orders joined with
+ * their items) are streamed from a JDBC cursor straight into the file, so memory holds one order at a time and no
+ * transaction stays open for the whole export. Chunks are not one snapshot: orders changed while the export runs
+ * appear as of the moment their chunk was read.
+ * <p>
+ * Finished files are kept for {@code ecommerce.orders.export.retention} and then deleted with their job.
+ */
+@Service
+@Log4j2
+public class OrderExportService {
+    private static final String ORDER_LINES = "SELECT o.id, o.customer_name, o.customer_email, o.status, "
+            + "o.total_amount, o.created_at, o.updated_at, "
+            + "i.id AS item_id, i.product_id, p.name AS product_name, i.quantity, i.unit_price, i.subtotal "
+            + "FROM (SELECT * FROM orders WHERE id > ? ORDER BY id LIMIT ?) o "
+            + "LEFT JOIN order_items i ON i.order_id = o.id "
+            + "LEFT JOIN products p ON p.id = i.product_id "
+            + "ORDER BY o.id, i.id";
+
+    private static final String CSV_HEADER = "order_id,customer_name,customer_email,status,total_amount,created_at,"
+            + "updated_at,item_id,product_id,product_name,quantity,unit_price,subtotal\n";
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new InvalidRequestException("Unsupported export format: " + value);
+        }
+    }
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${ecommerce.orders.export.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${ecommerce.orders.export.retention:1h}")
+    private Duration retention;
+
+    public OrderExportService(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${ecommerce.orders.export.threads:2}") int threads,
+                              @Value("${ecommerce.orders.export.fetch-size:500}") int fetchSize) {
+        // Rows are pulled from the cursor fetch-size at a time instead of all at once
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // One object per line, no pretty printing
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "order-export-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ExportJobResponse startExport(Format format) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.id, job);
+        log.info("Starting {} order export {}", format, job.id);
+        executor.execute(() -> run(job));
+        return job.toResponse();
+    }
+
+    public ExportJobResponse getExport(String id) {
+        return findJob(id).toResponse();
+    }
+
+    /**
+     * The file of a completed export.
+     */
+    public Path getExportFile(String id) {
+        ExportJob job = findJob(id);
+        if (job.status != Status.COMPLETED) {
+            throw new IllegalStateException("Export " + id + " is " + job.status);
+        }
+        return job.file;
+    }
+
+    public Format getExportFormat(String id) {
+        return findJob(id).format;
+    }
+
+    @Scheduled(fixedDelayString = "${ecommerce.orders.export.cleanup-interval-ms:300000}")
+    public void deleteExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        for (Iterator<ExportJob> it = jobs.values().iterator(); it.hasNext(); ) {
+            ExportJob job = it.next();
+            if (job.status != Status.RUNNING && job.completedAt.isBefore(cutoff)) {
+                it.remove();
+                deleteFile(job);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        jobs.values().forEach(OrderExportService::deleteFile);
+    }
+
+    private void run(ExportJob job) {
+        try {
+            job.file = Files.createTempFile("orders-export-", "." + job.format.extension());
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(job.file), StandardCharsets.UTF_8), 64 * 1024)) {
+                if (job.format == Format.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+                long afterId = 0;
+                while (true) {
+                    long from = afterId;
+                    ChunkWriter chunk = new ChunkWriter(job.format, writer);
+                    transactionTemplate.executeWithoutResult(status ->
+                            jdbcTemplate.query(ORDER_LINES, chunk::processRow, from, chunkSize));
+                    chunk.finish();
+                    job.ordersWritten += chunk.orders;
+                    if (chunk.orders < chunkSize) {
+                        break;
+                    }
+                    afterId = chunk.lastOrderId;
+                }
+            }
+            job.sizeBytes = Files.size(job.file);
+            job.finish(Status.COMPLETED, null);
+            log.info("Order export {} completed: {} orders, {} bytes", job.id, job.ordersWritten, job.sizeBytes);
+        } catch (Exception e) {
+            log.error("Order export {} failed", job.id, e);
+            job.finish(Status.FAILED, e.getMessage());
+            deleteFile(job);
+        }
+    }
+
+    private ExportJob findJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export not found with id: " + id);
+        }
+        return job;
+    }
+
+    private static void deleteFile(ExportJob job) {
+        if (job.file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(job.file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", job.file, e);
+        }
+    }
+
+    // Groups the joined rows of one chunk back into orders, writing each order once its last row is read
+    private final class ChunkWriter {
+        private final Format format;
+        private final Writer writer;
+        private OrderExportRecord current;
+        private boolean totalMissing;
+        private int orders;
+        private long lastOrderId;
+
+        private ChunkWriter(Format format, Writer writer) {
+            this.format = format;
+            this.writer = writer;
+        }
+
+        private void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("id");
+            if (current == null || current.getId() != orderId) {
+                finish();
+                BigDecimal total = rs.getBigDecimal("total_amount");
+                totalMissing = total == null;
+                current = OrderExportRecord.builder()
+                        .id(orderId)
+                        .customerName(rs.getString("customer_name"))
+                        .customerEmail(rs.getString("customer_email"))
+                        .status(rs.getString("status"))
+                        .totalAmount(totalMissing ? BigDecimal.ZERO : total)
+                        .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                        .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                        .items(new ArrayList<>())
+                        .build();
+            }
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                OrderItemResponse item = OrderItemResponse.builder()
+                        .id(itemId)
+                        .productId(rs.getLong("product_id"))
+                        .productName(rs.getString("product_name"))
+                        .quantity(rs.getInt("quantity"))
+                        .unitPrice(rs.getBigDecimal("unit_price"))
+                        .subtotal(rs.getBigDecimal("subtotal"))
+                        .build();
+                current.getItems().add(item);
+                // Not backfilled yet, same fallback as the API
+                if (totalMissing) {
+                    current.setTotalAmount(current.getTotalAmount().add(item.getSubtotal()));
+                }
+            }
+        }
+
+        private void finish() {
+            if (current == null) {
+                return;
+            }
+            try {
+                if (format == Format.NDJSON) {
+                    writer.write(objectMapper.writeValueAsString(current));
+                    writer.write('\n');
+                } else {
+                    writeCsv(current);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            orders++;
+            lastOrderId = current.getId();
+            current = null;
+        }
+
+        // One line per item, orders without items get one line with empty item columns
+        private void writeCsv(OrderExportRecord order) throws IOException {
+            String orderColumns = String.join(",", String.valueOf(order.getId()), csv(order.getCustomerName()),
+                    csv(order.getCustomerEmail()), order.getStatus(), order.getTotalAmount().toPlainString(),
+                    String.valueOf(order.getCreatedAt()), String.valueOf(order.getUpdatedAt()));
+            if (order.getItems().isEmpty()) {
+                writer.write(orderColumns + ",,,,,,\n");
+            }
+            for (OrderItemResponse item : order.getItems()) {
+                writer.write(orderColumns + "," + String.join(",", String.valueOf(item.getId()),
+                        String.valueOf(item.getProductId()), csv(item.getProductName()),
+                        String.valueOf(item.getQuantity()), item.getUnitPrice().toPlainString(),
+                        item.getSubtotal().toPlainString()) + "\n");
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    // Written by the export thread, read by request threads
+    private static final class ExportJob {
+        private final String id;
+        private final Format format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile Status status = Status.RUNNING;
+        private volatile Path file;
+        private volatile long ordersWritten;
+        private volatile long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        private ExportJob(String id, Format format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void finish(Status status, String error) {
+            this.error = error;
+            this.completedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        private ExportJobResponse toResponse() {
+            return ExportJobResponse.builder()
+                    .id(id)
+                    .format(format.extension())
+                    .status(status.name())
+                    .ordersWritten(ordersWritten)
+                    .sizeBytes(sizeBytes)
+                    .error(error)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.request.OrderImportItem;
+import com.ecommerce.model.request.OrderImportLine;
+import com.ecommerce.model.response.ImportChunkResult;
+import com.ecommerce.model.response.ImportLineError;
+import com.ecommerce.model.response.OrderImportReport;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.SequenceIdAllocator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of historical orders from NDJSON, one order with its items per line.
+ * The input is read line by line and written in chunks, each chunk in its own transaction with JDBC batch inserts.
+ * Rows are inserted directly rather than through the entities: ids come from {@link SequenceIdAllocator}
+ * and timestamps are set here, so there is no persistence context, dirty checking or lifecycle callbacks.
+ * <p>
+ * Invalid lines are rejected individually and reported with their line number. Like the unique index on
+ * order_items (order_id, product_id), an order may list each product only once, and at most
+ * {@link OrderImportLine#MAX_ITEMS} products. Stock is not touched.
+ */
+@Service
+@Log4j2
+public class OrderImportService {
+    private static final String INSERT_ORDER = "INSERT INTO orders "
+            + "(id, customer_name, customer_email, status, total_amount, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM = "INSERT INTO order_items "
+            + "(id, order_id, product_id, quantity, unit_price, subtotal, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Largest value of order_items.subtotal, DECIMAL(10,2)
+    private static final BigDecimal MAX_SUBTOTAL = new BigDecimal("99999999.99");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final SequenceIdAllocator idAllocator;
+    private final Validator validator;
+    private final ObjectReader lineReader;
+
+    @Value("${ecommerce.orders.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${ecommerce.orders.import.product-lookup-batch-size:1000}")
+    private int productLookupBatchSize;
+
+    @Value("${ecommerce.orders.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public OrderImportService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ProductRepository productRepository,
+                              SequenceIdAllocator idAllocator,
+                              Validator validator,
+                              ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.idAllocator = idAllocator;
+        this.validator = validator;
+        this.lineReader = objectMapper.readerFor(OrderImportLine.class);
+    }
+
+    public OrderImportReport importOrders(InputStream input) {
+        OrderImportReport report = new OrderImportReport();
+        List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+        long lineNo = 0;
+        long chunkStart = 1;
+        int chunkRejected = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setLinesRead(report.getLinesRead() + 1);
+
+                ParsedLine parsed = parse(lineNo, line, report);
+                if (parsed == null) {
+                    chunkRejected++;
+                } else {
+                    chunk.add(parsed);
+                }
+
+                if (chunk.size() + chunkRejected >= chunkSize) {
+                    writeChunk(chunk, chunkStart, lineNo, chunkRejected, report);
+                    chunk.clear();
+                    chunkStart = lineNo + 1;
+                    chunkRejected = 0;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import input at line " + lineNo, e);
+        }
+
+        if (!chunk.isEmpty() || chunkRejected > 0) {
+            writeChunk(chunk, chunkStart, lineNo, chunkRejected, report);
+        }
+        log.info("Order import finished: {} lines, {} orders and {} items imported, {} orders rejected",
+                report.getLinesRead(), report.getOrdersImported(), report.getItemsImported(), report.getOrdersRejected());
+        return report;
+    }
+
+    private ParsedLine parse(long lineNo, String line, OrderImportReport report) {
+        OrderImportLine order;
+        try {
+            order = lineReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            reject(report, lineNo, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<OrderImportLine>> violations = validator.validate(order);
+        if (!violations.isEmpty()) {
+            reject(report, lineNo, violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        for (OrderImportItem item : order.getItems()) {
+            if (!productIds.add(item.getProductId())) {
+                reject(report, lineNo, "Duplicate product " + item.getProductId() + " in order");
+                return null;
+            }
+            if (subtotal(item).compareTo(MAX_SUBTOTAL) > 0) {
+                reject(report, lineNo, "Subtotal of product " + item.getProductId() + " is too large");
+                return null;
+            }
+        }
+        return new ParsedLine(lineNo, order);
+    }
+
+    private void writeChunk(List<ParsedLine> lines, long firstLine, long lastLine, int rejected,
+                            OrderImportReport report) {
+        long start = System.nanoTime();
+        ImportChunkResult result = ImportChunkResult.builder()
+                .chunk(report.getChunks().size() + 1)
+                .firstLine(firstLine)
+                .lastLine(lastLine)
+                .ordersRejected(rejected)
+                .build();
+
+        try {
+            List<ParsedLine> valid = withKnownProducts(lines, report);
+            result.setOrdersRejected(rejected + lines.size() - valid.size());
+            if (!valid.isEmpty()) {
+                int items = transactionTemplate.execute(status -> insert(valid));
+                result.setOrdersImported(valid.size());
+                result.setItemsImported(items);
+            }
+        } catch (DataAccessException e) {
+            // The product lookup or the inserts failed, the whole chunk is rejected and the import goes on
+            log.warn("Order import chunk {} (lines {}-{}) failed", result.getChunk(), firstLine, lastLine, e);
+            result.setOrdersRejected(rejected + lines.size());
+            result.setError(e.getMostSpecificCause().getMessage());
+        }
+
+        result.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        report.getChunks().add(result);
+        report.setOrdersImported(report.getOrdersImported() + result.getOrdersImported());
+        report.setItemsImported(report.getItemsImported() + result.getItemsImported());
+        report.setOrdersRejected(report.getOrdersRejected() + result.getOrdersRejected());
+        log.info("Order import chunk {} (lines {}-{}): {} orders, {} items imported, {} rejected in {} ms",
+                result.getChunk(), firstLine, lastLine, result.getOrdersImported(), result.getItemsImported(),
+                result.getOrdersRejected(), result.getDurationMs());
+    }
+
+    // Products referenced by a chunk are looked up in batches of bounded size, lines with unknown products are rejected
+    private List<ParsedLine> withKnownProducts(List<ParsedLine> lines, OrderImportReport report) {
+        List<Long> referenced = lines.stream()
+                .flatMap(line -> line.order().getItems().stream())
+                .map(OrderImportItem::getProductId)
+                .distinct()
+                .toList();
+        if (referenced.isEmpty()) {
+            return lines;
+        }
+        Set<Long> existing = new HashSet<>(referenced.size());
+        for (int from = 0; from < referenced.size(); from += productLookupBatchSize) {
+            List<Long> batch = referenced.subList(from, Math.min(from + productLookupBatchSize, referenced.size()));
+            existing.addAll(productRepository.findExistingIds(batch));
+        }
+
+        List<ParsedLine> valid = new ArrayList<>(lines.size());
+        for (ParsedLine line : lines) {
+            Long unknown = line.order().getItems().stream()
+                    .map(OrderImportItem::getProductId)
+                    .filter(id -> !existing.contains(id))
+                    .findFirst()
+                    .orElse(null);
+            if (unknown == null) {
+                valid.add(line);
+            } else {
+                reject(report, line.lineNo(), "Product not found with id: " + unknown);
+            }
+        }
+        return valid;
+    }
+
+    private int insert(List<ParsedLine> lines) {
+        int itemCount = lines.stream().mapToInt(line -> line.order().getItems().size()).sum();
+        long[] orderIds = idAllocator.nextIds("orders_seq", lines.size());
+        long[] itemIds = idAllocator.nextIds("order_items_seq", itemCount);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> orders = new ArrayList<>(lines.size());
+        List<Object[]> items = new ArrayList<>(itemCount);
+        int itemIndex = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderImportLine order = lines.get(i).order();
+            LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : now;
+            BigDecimal total = BigDecimal.ZERO;
+            for (OrderImportItem item : order.getItems()) {
+                BigDecimal subtotal = subtotal(item);
+                total = total.add(subtotal);
+                items.add(new Object[]{itemIds[itemIndex++], orderIds[i], item.getProductId(), item.getQuantity(),
+                        item.getUnitPrice(), subtotal, createdAt, now});
+            }
+            orders.add(new Object[]{orderIds[i], order.getCustomerName(), order.getCustomerEmail(),
+                    order.getStatus().name(), total, createdAt, now});
+        }
+
+        // Orders first for the foreign key, each list goes out in batches of chunk size
+        jdbcTemplate.batchUpdate(INSERT_ORDER, orders);
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items);
+        return itemCount;
+    }
+
+    private static BigDecimal subtotal(OrderImportItem item) {
+        return item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+    }
+
+    private void reject(OrderImportReport report, long lineNo, String message) {
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportLineError(lineNo, message));
+        }
+    }
+
+    private record ParsedLine(long lineNo, OrderImportLine order) {
+    }
+}
@@ -2,15 +2,18 @@ package com.ecommerce.service;
 
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.entity.OrderItem;
-import com.ecommerce.model.entity.Product;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.model.response.OrderItemResponse;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
-import jakarta.transaction.Transactional;
+import com.ecommerce.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,47 +21,61 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Log4j2
-@Transactional
+@Transactional(readOnly = true)
 public class OrderItemService {
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final StockReservationService stockReservationService;
 
-    public List<OrderItem> getAllOrderItems() {
-        log.debug("Fetching all order items");
-        return orderItemRepository.findAll();
+    public CursorPage<OrderItemResponse> getAllOrderItems(String cursor, Integer size) {
+        log.debug("Fetching order items page, cursor: {}, size: {}", cursor, size);
+        int pageSize = CursorUtil.pageSize(size);
+        List<OrderItemResponse> rows = orderItemRepository.findResponsesAfter(
+                CursorUtil.decode(cursor), Limit.of(pageSize + 1));
+        return CursorUtil.toPage(rows, pageSize, OrderItemResponse::getId);
     }
 
-    public OrderItem getOrderItemById(Long id) {
+    public OrderItemResponse getOrderItemById(Long id) {
         log.debug("Fetching order item with id: {}", id);
-        return orderItemRepository.findById(id)
+        return orderItemRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order item not found with id: " + id));
     }
 
+    @Transactional
     public OrderItem updateOrderItem(Long id, OrderItemUpdateRequest request) {
         log.debug("Updating order item with id: {}", id);
-        OrderItem orderItem = getOrderItemById(id);
-        Product product = orderItem.getProduct();
+        OrderItem orderItem = findOrderItem(id);
 
         int diff = request.getQuantity() - orderItem.getQuantity();
 
-        if (product.getStockQuantity() < diff) {
-            throw new IllegalStateException("Not enough stock");
-        }
+        stockReservationService.adjust(orderItem.getProduct(), diff);
+
+        BigDecimal subtotal = orderItem.getUnitPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
+        BigDecimal delta = subtotal.subtract(orderItem.getSubtotal());
 
-        product.setStockQuantity(product.getStockQuantity() - diff);
+        // Changed before the total so that a NULL total is recomputed from the new subtotal
         orderItem.setQuantity(request.getQuantity());
-        orderItem.setSubtotal(
-                orderItem.getUnitPrice()
-                        .multiply(BigDecimal.valueOf(request.getQuantity()))
-        );
+        orderItem.setSubtotal(subtotal);
+        OrderItem saved = orderItemRepository.save(orderItem);
+        if (delta.signum() != 0) {
+            orderRepository.addToTotalAmount(orderItem.getOrder().getId(), delta);
+        }
 
-        return orderItemRepository.save(orderItem);
+        return saved;
     }
 
+    @Transactional
     public void deleteOrderItem(Long id) {
         log.debug("Deleting order item with id: {}", id);
-        OrderItem orderItem = getOrderItemById(id);
+        OrderItem orderItem = findOrderItem(id);
         orderItemRepository.delete(orderItem);
+        orderRepository.addToTotalAmount(orderItem.getOrder().getId(), orderItem.getSubtotal().negate());
+    }
+
+    // Managed item with its product for mutations, reads go through the projection queries
+    private OrderItem findOrderItem(Long id) {
+        return orderItemRepository.findWithProductById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order item not found with id: " + id));
     }
 }
@@ -1,50 +1,100 @@
 package com.ecommerce.service;
 
+import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.mapper.OrderMapper;
 import com.ecommerce.model.entity.Order;
 import com.ecommerce.model.entity.OrderItem;
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.OrderLineRow;
+import com.ecommerce.model.projection.VersionRow;
+import com.ecommerce.model.request.CheckoutRequest;
 import com.ecommerce.model.request.OrderCreateRequest;
 import com.ecommerce.model.request.OrderItemRequest;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
 import com.ecommerce.model.request.OrderUpdateRequest;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.model.response.OrderItemResponse;
+import com.ecommerce.model.response.OrderResponse;
+import com.ecommerce.model.response.ResourceVersion;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
-import jakarta.transaction.Transactional;
+import com.ecommerce.util.CursorUtil;
+import com.ecommerce.util.EtagUtil;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 @Log4j2
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "ecommerce.service", extraTags = {"service", "orders"})
 public class OrderService {
+    static final String STOCK_LOCK_WAIT = "ecommerce.orders.stock.lock.wait";
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
-
-    public List<Order> getAllOrders() {
-        log.debug("Fetching all orders");
-        return orderRepository.findAll();
+    private final StockReservationService stockReservationService;
+    private final OrderMapper orderMapper;
+    private final MeterRegistry meterRegistry;
+
+    public CursorPage<OrderResponse> getAllOrders(String cursor, Integer size) {
+        log.debug("Fetching orders page, cursor: {}, size: {}", cursor, size);
+        int pageSize = CursorUtil.pageSize(size);
+        List<OrderLineRow> rows = orderRepository.findLinesAfter(CursorUtil.decode(cursor), pageSize + 1);
+        return CursorUtil.toPage(orderMapper.toResponses(rows), pageSize, OrderResponse::getId);
     }
 
-    public Order getOrderById(Long id) {
+    public OrderResponse getOrderById(Long id) {
         log.debug("Fetching order with id: {}", id);
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        return orderMapper.toResponses(findOrderLines(id)).get(0);
     }
 
-    public List<OrderItem> getOrderItems(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Order not found with id: " + orderId));
+    public List<OrderItemResponse> getOrderItems(Long orderId) {
+        log.debug("Fetching items of order with id: {}", orderId);
+        return findOrderLines(orderId).stream()
+                .filter(row -> row.getItemId() != null)
+                .map(orderMapper::toItemResponse)
+                .toList();
+    }
+
+    public ResourceVersion getOrderVersion(Long id) {
+        VersionRow row = orderRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        return new ResourceVersion(
+                EtagUtil.of("order", row.getId(), row.getUpdatedAt(), row.getRelatedUpdatedAt()),
+                EtagUtil.lastModified(latest(row)));
+    }
 
-        return order.getOrderItems();
+    public ResourceVersion getOrdersPageVersion(String cursor, Integer size) {
+        int pageSize = CursorUtil.pageSize(size);
+        List<VersionRow> rows = orderRepository.findVersionsAfter(CursorUtil.decode(cursor), pageSize + 1);
+
+        List<Object> parts = new ArrayList<>();
+        parts.add("orders");
+        parts.add(rows.size() > pageSize);
+        for (VersionRow row : rows.subList(0, Math.min(pageSize, rows.size()))) {
+            parts.add(row.getId());
+            parts.add(row.getUpdatedAt());
+            parts.add(row.getRelatedUpdatedAt());
+        }
+        return new ResourceVersion(EtagUtil.of(parts), -1);
     }
 
+    @Transactional
     public Order createOrder(OrderCreateRequest request) {
         log.debug("Creating new order for customer: {}", request.getCustomerName());
 
@@ -57,9 +107,71 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
+    /**
+     * Creates an order with all its lines in one transaction.
+     * Products are loaded with one query and the whole basket is validated before any stock is touched.
+     * Stock is reserved in ascending product id order, so concurrent checkouts lock rows in the same order
+     * and cannot deadlock. The order and its items are inserted at commit in JDBC batches.
+     */
+    @Transactional
+    public Order checkout(CheckoutRequest request) {
+        log.debug("Checking out order with {} lines for customer: {}",
+                request.getItems().size(), request.getCustomerName());
+
+        // Sorted by product id, duplicate lines merged
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest line : request.getItems()) {
+            try {
+                quantities.merge(line.getProductId(), line.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new InvalidRequestException("Quantity too large for product with id: " + line.getProductId());
+            }
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(quantities.keySet()).forEach(p -> products.put(p.getId(), p));
+        List<Long> missing = quantities.keySet().stream().filter(id -> !products.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Products not found with ids: " + missing);
+        }
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            // Cheap early rejection, the reservation below is still the authoritative check
+            if (!product.isStockShardingEnabled() && product.getStockQuantity() < quantity) {
+                throw new IllegalStateException("Not enough stock for product " + productId);
+            }
+        });
+
+        Order order = Order.builder()
+                .customerName(request.getCustomerName())
+                .customerEmail(request.getCustomerEmail())
+                .status(Order.OrderStatus.PENDING)
+                .build();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            OrderItem item = OrderItem.builder()
+                    .product(product)
+                    .quantity(line.getValue())
+                    .unitPrice(product.getPrice())
+                    .subtotal(product.getPrice().multiply(BigDecimal.valueOf(line.getValue())))
+                    .build();
+            order.addItem(item);
+            total = total.add(item.getSubtotal());
+        }
+        order.setTotalAmount(total);
+        orderRepository.save(order);
+
+        // Last, to keep the row locks short
+        quantities.forEach((productId, quantity) -> stockReservationService.reserve(products.get(productId), quantity));
+
+        return order;
+    }
+
+    @Transactional
     public Order updateOrder(Long id, OrderUpdateRequest request) {
         log.debug("Updating order with id: {}", id);
-        Order order = getOrderById(id);
+        Order order = findOrder(id);
 
         if (order.getStatus() != Order.OrderStatus.PENDING) {
             throw new IllegalStateException("Cannot modify a finalized order");
@@ -71,9 +183,10 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
+    @Transactional
     public void deleteOrder(Long id) {
         log.debug("Deleting order with id: {}", id);
-        Order order = getOrderById(id);
+        Order order = findOrder(id);
 
         if (order.getStatus() != Order.OrderStatus.PENDING) {
             throw new IllegalStateException(
@@ -91,15 +204,11 @@ public class OrderService {
     @Transactional
     public OrderItem addItemToOrder(Long orderId, OrderItemRequest request) {
 
-        Order order = getOrderById(orderId);
+        Order order = findOrder(orderId);
 
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        if (product.getStockQuantity() < request.getQuantity()) {
-            throw new IllegalStateException("Not enough stock");
-        }
-
         OrderItem item = OrderItem.builder()
                 .product(product)
                 .quantity(request.getQuantity())
@@ -110,11 +219,16 @@ public class OrderService {
                 )
                 .build();
 
-        product.setStockQuantity(
-                product.getStockQuantity() - request.getQuantity()
-        );
-
         order.addItem(item);
+        addToTotalAmount(order, item.getSubtotal());
+
+        // The conditional stock update waits here for the product row lock held by concurrent reservations
+        Timer.Sample lockWait = Timer.start(meterRegistry);
+        try {
+            stockReservationService.reserve(product, request.getQuantity());
+        } finally {
+            lockWait.stop(meterRegistry.timer(STOCK_LOCK_WAIT));
+        }
 
         return item;
     }
@@ -122,7 +236,7 @@ public class OrderService {
     @Transactional
     public OrderItem updateOrderItem(Long orderId, Long itemId, OrderItemUpdateRequest request) {
 
-        Order order = getOrderById(orderId);
+        Order order = findOrder(orderId);
 
         OrderItem item = order.getOrderItems().stream()
                 .filter(i -> i.getId().equals(itemId))
@@ -131,19 +245,15 @@ public class OrderService {
 
         int diff = request.getQuantity() - item.getQuantity();
 
-        Product product = item.getProduct();
-
-        if (product.getStockQuantity() < diff) {
-            throw new IllegalStateException("Not enough stock");
-        }
+        stockReservationService.adjust(item.getProduct(), diff);
 
-        product.setStockQuantity(product.getStockQuantity() - diff);
+        BigDecimal subtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
+        BigDecimal delta = subtotal.subtract(item.getSubtotal());
 
+        // Changed before the total so that a NULL total is recomputed from the new subtotal
         item.setQuantity(request.getQuantity());
-        item.setSubtotal(
-                item.getUnitPrice()
-                        .multiply(BigDecimal.valueOf(request.getQuantity()))
-        );
+        item.setSubtotal(subtotal);
+        addToTotalAmount(order, delta);
 
         return item;
     }
@@ -151,7 +261,7 @@ public class OrderService {
     @Transactional
     public void deleteOrderItem(Long orderId, Long itemId) {
 
-        Order order = getOrderById(orderId);
+        Order order = findOrder(orderId);
 
         OrderItem item = order.getOrderItems().stream()
                 .filter(i -> i.getId().equals(itemId))
@@ -160,14 +270,49 @@ public class OrderService {
                         new ResourceNotFoundException("Order item not found with id: " + itemId)
                 );
 
-        Product product = item.getProduct();
-
-        product.setStockQuantity(
-                product.getStockQuantity() + item.getQuantity()
-        );
+        stockReservationService.release(item.getProduct(), item.getQuantity());
 
         order.removeItem(item);
+        addToTotalAmount(order, item.getSubtotal().negate());
     }
 
+    /**
+     * Recomputes the total of up to {@code limit} orders that predate the total_amount column.
+     * Returns the number of orders updated, 0 once everything is backfilled.
+     */
+    @Transactional
+    public int backfillTotalAmounts(int limit) {
+        return orderRepository.backfillTotalAmounts(limit);
+    }
+
+    // Managed order with items and products for mutations, reads go through the projection queries
+    private Order findOrder(Long id) {
+        return orderRepository.findWithItemsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+    }
 
+    // Persists the delta atomically and mirrors it on the loaded order, which never writes the column itself.
+    // A missing total is recomputed from the items the same way the query does.
+    private void addToTotalAmount(Order order, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        orderRepository.addToTotalAmount(order.getId(), delta);
+        order.setTotalAmount(order.getTotalAmount() != null
+                ? order.getTotalAmount().add(delta)
+                : order.getOrderItems().stream().map(OrderItem::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    private static LocalDateTime latest(VersionRow row) {
+        LocalDateTime related = row.getRelatedUpdatedAt();
+        return related != null && related.isAfter(row.getUpdatedAt()) ? related : row.getUpdatedAt();
+    }
+
+    private List<OrderLineRow> findOrderLines(Long orderId) {
+        List<OrderLineRow> rows = orderRepository.findLinesByOrderId(orderId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found with id: " + orderId);
+        }
+        return rows;
+    }
 }
@@ -0,0 +1,46 @@
+package com.ecommerce.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills orders.total_amount for orders created before the column existed. Runs on the scheduler, one chunk per tick
+ * and per transaction, so startup and readiness do not wait for it, row locks are held briefly and a restart resumes
+ * where it stopped. Stops querying once a chunk comes back empty.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = "ecommerce.orders.total-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderTotalBackfillJob {
+    private final OrderService orderService;
+
+    @Value("${ecommerce.orders.total-backfill.chunk-size:500}")
+    private int chunkSize;
+
+    // Only touched by the scheduler thread, fixed delay ticks never overlap
+    private long total;
+    private boolean done;
+
+    @Scheduled(initialDelayString = "${ecommerce.orders.total-backfill.interval-ms:100}",
+            fixedDelayString = "${ecommerce.orders.total-backfill.interval-ms:100}")
+    public void backfillChunk() {
+        if (done) {
+            return;
+        }
+        int updated = orderService.backfillTotalAmounts(chunkSize);
+        if (updated > 0) {
+            total += updated;
+            return;
+        }
+
+        done = true;
+        if (total > 0) {
+            log.info("Backfilled total amount of {} orders", total);
+        }
+    }
+}
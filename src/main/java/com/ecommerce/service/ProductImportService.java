@@ -0,0 +1,457 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.response.ImportLineError;
+import com.ecommerce.model.response.ProductImportReport;
+import com.ecommerce.repository.SequenceIdAllocator;
+import com.ecommerce.util.CsvTokenizer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog import from a CSV or TSV file, upserting products by name.
+ * <p>
+ * The file is memory-mapped in slices that end on line boundaries, and the slices are tokenized and validated
+ * against the {@link Product} constraints on several threads. Each slice hands its parsed rows through its own
+ * bounded queue to a single writer, which drains the slices in file order and upserts the rows in batches, one
+ * transaction per batch: a batched UPDATE by name, then a batched INSERT of the names that matched nothing.
+ * Parsing runs at most one slice per thread ahead of the writer, so heap use depends on the batch size and thread
+ * count, not on the file size.
+ * <p>
+ * The first line is a header naming the columns {@code name}, {@code price}, {@code stock_quantity} and optionally
+ * {@code description}, in any order. Without a description column, existing descriptions are left as they are.
+ * A tab in the header selects TSV. Product names are not unique in the schema,
+ * so an update applies to every product of that name. Rows are written in file order, so within a file the last
+ * row for a name wins; earlier rows for that name in the same batch are skipped and reported as duplicates.
+ * The stock of products with sharded stock is left alone.
+ */
+@Service
+@Log4j2
+public class ProductImportService {
+    private static final String UPDATE_BY_NAME = "UPDATE products SET description = ?, price = ?, "
+            + "stock_quantity = CASE WHEN stock_sharded THEN stock_quantity ELSE ? END, updated_at = ? "
+            + "WHERE name = ?";
+    // For files without a description column, existing descriptions are kept
+    private static final String UPDATE_BY_NAME_KEEP_DESCRIPTION = "UPDATE products SET price = ?, "
+            + "stock_quantity = CASE WHEN stock_sharded THEN stock_quantity ELSE ? END, updated_at = ? "
+            + "WHERE name = ?";
+    private static final String INSERT = "INSERT INTO products "
+            + "(id, name, description, price, stock_quantity, stock_sharded, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, FALSE, ?, ?)";
+
+    private static final List<String> CACHES = List.of(CacheConfig.PRODUCT_JSON, CacheConfig.PRODUCT_PAGE_JSON);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceIdAllocator idAllocator;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+
+    @Value("${ecommerce.products.import.batch-size:1000}")
+    private int batchSize;
+
+    // 0 for one per available processor
+    @Value("${ecommerce.products.import.parser-threads:0}")
+    private int parserThreads;
+
+    @Value("${ecommerce.products.import.slice-size:64MB}")
+    private DataSize sliceSize;
+
+    @Value("${ecommerce.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                SequenceIdAllocator idAllocator,
+                                Validator validator,
+                                CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idAllocator = idAllocator;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Spools the upload to a temporary file, which is what gets mapped, and imports it.
+     */
+    public ProductImportReport importProducts(InputStream input) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("product-import-", ".csv");
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            return importProducts(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool product import", e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}", file, e);
+                }
+            }
+        }
+    }
+
+    public ProductImportReport importProducts(Path file) {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            List<Slice> slices = slice(channel, header.dataStart());
+            Run run = new Run(header, slices.size());
+            parseAndWrite(channel, slices, run);
+
+            ProductImportReport report = run.report();
+            report.setDurationMs((System.nanoTime() - started) / 1_000_000);
+            log.info("Product import of {} finished: {} rows, {} inserted, {} updated, {} duplicates, {} rejected "
+                            + "in {} ms", file.getFileName(), report.getRowsRead(), report.getInserted(),
+                    report.getUpdated(), report.getDuplicates(), report.getRejected(), report.getDurationMs());
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read product import " + file, e);
+        }
+    }
+
+    private void parseAndWrite(FileChannel channel, List<Slice> slices, Run run) {
+        int threads = Math.max(1, Math.min(slices.size(),
+                parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors()));
+        ExecutorService parsers = Executors.newFixedThreadPool(threads);
+        // One queue per slice so the writer can apply the slices in file order, each bounding the parsed rows
+        // held in memory while the writer catches up
+        List<BlockingQueue<List<Row>>> queues = new ArrayList<>(slices.size());
+        List<Future<?>> futures = new ArrayList<>(slices.size());
+        try {
+            for (Slice slice : slices) {
+                queues.add(new ArrayBlockingQueue<>(2));
+            }
+            // A slice is only submitted once the writer is within one slice per thread of it
+            int submitted = 0;
+            for (; submitted < threads; submitted++) {
+                Slice slice = slices.get(submitted);
+                futures.add(parsers.submit(() -> parseSlice(channel, slice, run, queues.get(slice.index()))));
+            }
+
+            for (BlockingQueue<List<Row>> queue : queues) {
+                // An empty batch marks the end of a slice
+                for (List<Row> batch = queue.take(); !batch.isEmpty(); batch = queue.take()) {
+                    write(batch, run);
+                }
+                if (submitted < slices.size()) {
+                    Slice slice = slices.get(submitted++);
+                    futures.add(parsers.submit(() -> parseSlice(channel, slice, run, queues.get(slice.index()))));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Product import interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof UncheckedIOException io ? io
+                    : new IllegalStateException("Product import failed", e.getCause());
+        } finally {
+            parsers.shutdownNow();
+        }
+    }
+
+    private void parseSlice(FileChannel channel, Slice slice, Run run, BlockingQueue<List<Row>> queue) {
+        try {
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, slice.start(), slice.length());
+                CsvTokenizer tokenizer = new CsvTokenizer(buffer, run.header.delimiter());
+                List<Row> batch = new ArrayList<>(batchSize);
+                while (tokenizer.next()) {
+                    if (tokenizer.isBlank()) {
+                        continue;
+                    }
+                    run.rowsRead.incrementAndGet();
+                    Product product = toProduct(tokenizer, run, slice.index());
+                    if (product != null) {
+                        batch.add(new Row(slice.index(), tokenizer.line(), product));
+                    }
+                    if (batch.size() == batchSize) {
+                        queue.put(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                run.sliceLines[slice.index()] = tokenizer.line();
+                if (!batch.isEmpty()) {
+                    queue.put(batch);
+                }
+            } finally {
+                queue.put(List.of());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Product toProduct(CsvTokenizer tokenizer, Run run, int slice) {
+        if (tokenizer.error() != null) {
+            run.reject(slice, tokenizer.line(), tokenizer.error());
+            return null;
+        }
+        Header header = run.header;
+        Product product;
+        try {
+            String price = tokenizer.field(header.price());
+            String stock = tokenizer.field(header.stockQuantity());
+            product = Product.builder()
+                    .name(tokenizer.field(header.name()))
+                    .description(header.hasDescription() ? tokenizer.field(header.description()) : null)
+                    .price(price == null ? null : new BigDecimal(price.trim()))
+                    .stockQuantity(stock == null ? null : Integer.valueOf(stock.trim()))
+                    .stockSharded(false)
+                    .build();
+        } catch (NumberFormatException e) {
+            run.reject(slice, tokenizer.line(), "Invalid number: " + e.getMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            run.reject(slice, tokenizer.line(), violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return product;
+    }
+
+    private void write(List<Row> rows, Run run) {
+        // Last row per name wins within the batch, earlier batches are already committed and get updated
+        Map<String, Row> byName = new LinkedHashMap<>();
+        for (Row row : rows) {
+            byName.put(row.product().getName(), row);
+        }
+        List<Product> products = byName.values().stream().map(Row::product).toList();
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            int[] counts = transactionTemplate.execute(
+                    status -> upsert(products, run.header.hasDescription(), now));
+            run.updated.addAndGet(counts[0]);
+            run.inserted.addAndGet(counts[1]);
+            run.duplicates.addAndGet(rows.size() - byName.size());
+        } catch (DataAccessException e) {
+            Row first = rows.get(0);
+            log.warn("Product import batch of {} rows failed", rows.size(), e);
+            run.rejected.addAndGet(rows.size() - 1);
+            run.reject(first.slice(), first.line(), "Batch of " + rows.size() + " rows starting here failed: "
+                    + e.getMostSpecificCause().getMessage());
+            return;
+        }
+        // Outside the transaction, so the caches are cleared right after the commit
+        CACHES.stream().map(cacheManager::getCache).filter(cache -> cache != null).forEach(Cache::clear);
+    }
+
+    private int[] upsert(List<Product> products, boolean withDescription, LocalDateTime now) {
+        int[] updated = withDescription
+                ? jdbcTemplate.batchUpdate(UPDATE_BY_NAME, products.stream()
+                        .map(p -> new Object[]{p.getDescription(), p.getPrice(), p.getStockQuantity(), now, p.getName()})
+                        .toList())
+                : jdbcTemplate.batchUpdate(UPDATE_BY_NAME_KEEP_DESCRIPTION, products.stream()
+                        .map(p -> new Object[]{p.getPrice(), p.getStockQuantity(), now, p.getName()})
+                        .toList());
+
+        List<Product> inserts = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            if (updated[i] == 0) {
+                inserts.add(products.get(i));
+            }
+        }
+        long[] ids = idAllocator.nextIds("products_seq", inserts.size());
+        List<Object[]> rows = new ArrayList<>(inserts.size());
+        for (int i = 0; i < inserts.size(); i++) {
+            Product p = inserts.get(i);
+            rows.add(new Object[]{ids[i], p.getName(), p.getDescription(), p.getPrice(), p.getStockQuantity(), now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        return new int[]{products.size() - inserts.size(), inserts.size()};
+    }
+
+    private Header readHeader(FileChannel channel) throws IOException {
+        // The header is small, a line longer than this is not a header
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 64 * 1024));
+        channel.read(buffer, 0);
+        buffer.flip();
+        int offset = 0;
+        // UTF-8 byte order mark
+        if (buffer.remaining() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF) {
+            offset = 3;
+        }
+        int end = offset;
+        while (end < buffer.limit() && buffer.get(end) != '\n') {
+            end++;
+        }
+        if (end == buffer.limit() && end < channel.size()) {
+            throw new InvalidRequestException("Header line is too long");
+        }
+        String line = StandardCharsets.UTF_8.decode(buffer.slice(offset, end - offset)).toString().strip();
+        char delimiter = line.indexOf('\t') >= 0 ? '\t' : ',';
+
+        CsvTokenizer tokenizer = new CsvTokenizer(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), delimiter);
+        if (line.isEmpty() || !tokenizer.next() || tokenizer.error() != null) {
+            throw new InvalidRequestException("Missing or malformed header line");
+        }
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < tokenizer.fieldCount(); i++) {
+            String column = tokenizer.field(i);
+            if (column != null) {
+                columns.put(column.strip().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+        }
+        for (String required : List.of("name", "price", "stockquantity")) {
+            if (!columns.containsKey(required)) {
+                throw new InvalidRequestException("Missing column: " + required);
+            }
+        }
+        return new Header(delimiter, columns.get("name"), columns.getOrDefault("description", -1),
+                columns.get("price"), columns.get("stockquantity"), Math.min(end + 1, channel.size()));
+    }
+
+    // Cuts the data into slices of about sliceSize bytes, each ending after a line break
+    private List<Slice> slice(FileChannel channel, long dataStart) throws IOException {
+        long size = channel.size();
+        List<Slice> slices = new ArrayList<>();
+        long start = dataStart;
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        while (start < size) {
+            long end = Math.min(size, start + Math.max(1, Math.min(sliceSize.toBytes(), Integer.MAX_VALUE)));
+            // Move the cut past the next line break
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int lf = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lf = i;
+                        break;
+                    }
+                }
+                if (lf >= 0) {
+                    end += lf + 1;
+                    break;
+                }
+                end += Math.max(read, 0);
+                if (read <= 0) {
+                    end = size;
+                }
+            }
+            slices.add(new Slice(slices.size(), start, end - start));
+            start = end;
+        }
+        return slices;
+    }
+
+    private record Header(char delimiter, int name, int description, int price, int stockQuantity, long dataStart) {
+        boolean hasDescription() {
+            return description >= 0;
+        }
+    }
+
+    private record Slice(int index, long start, long length) {
+    }
+
+    private record Row(int slice, long line, Product product) {
+    }
+
+    // State of one import, shared by the parser threads and the writer
+    private final class Run {
+        private final Header header;
+        private final long[] sliceLines;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        // Rows superseded by a later row for the same name in their batch
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        // Line numbers are relative to their slice until all slices are parsed
+        private final List<SliceError> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private Run(Header header, int slices) {
+            this.header = header;
+            this.sliceLines = new long[slices];
+        }
+
+        private void reject(int slice, long line, String message) {
+            rejected.incrementAndGet();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new SliceError(slice, line, message));
+            }
+        }
+
+        private ProductImportReport report() {
+            // Line 1 is the header
+            long[] firstLine = new long[sliceLines.length];
+            long line = 1;
+            for (int i = 0; i < sliceLines.length; i++) {
+                firstLine[i] = line;
+                line += sliceLines[i];
+            }
+            List<ImportLineError> lineErrors = errors.stream()
+                    .map(e -> new ImportLineError(firstLine[e.slice()] + e.line(), e.message()))
+                    .sorted((a, b) -> Long.compare(a.getLine(), b.getLine()))
+                    .limit(maxReportedErrors)
+                    .toList();
+            return ProductImportReport.builder()
+                    .rowsRead(rowsRead.get())
+                    .inserted(inserted.get())
+                    .updated(updated.get())
+                    .duplicates(duplicates.get())
+                    .rejected(rejected.get())
+                    .errors(new ArrayList<>(lineErrors))
+                    .build();
+        }
+    }
+
+    private record SliceError(int slice, long line, String message) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.ProductVersionRow;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.model.response.JsonPayload;
+import com.ecommerce.model.response.ResourceVersion;
+import com.ecommerce.util.EtagUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Product responses as ready-to-write JSON bytes, so cached reads skip Jackson and per-request allocation.
+ * The immutable bytes are the only cached form of a single product. Entries are evicted on every product or stock
+ * mutation, and carry the ETag of the state they were serialized from.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ProductJsonService {
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    @Value("${ecommerce.cache.product-json.gzip-min-size:1024}")
+    private int gzipMinSize;
+
+    public JsonPayload getProduct(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_JSON);
+        JsonPayload cached = cache.get(id, JsonPayload.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        log.debug("Serializing product with id: {}", id);
+        Product product = productService.getProductById(id);
+        JsonPayload payload = serialize(product, EtagUtil.of(versionParts(product)),
+                lastModified(product.isStockShardingEnabled(), product.getUpdatedAt()));
+        // A mutation committed since the read has already evicted, storing now would bring its old stock back
+        if (productService.isCurrent(product)) {
+            cache.put(id, payload);
+        }
+        return payload;
+    }
+
+    /**
+     * The validators {@link #getProduct} would return, from the cached entry or else from the version columns,
+     * so a conditional GET on a cache miss is answered without loading and serializing the product.
+     */
+    public ResourceVersion getProductVersion(Long id) {
+        JsonPayload cached = cacheManager.getCache(CacheConfig.PRODUCT_JSON).get(id, JsonPayload.class);
+        if (cached != null) {
+            return new ResourceVersion(cached.getEtag(), cached.getLastModified());
+        }
+        ProductVersionRow row = productService.getProductVersion(id);
+        return new ResourceVersion(EtagUtil.of(versionParts(row.getId(), row.getUpdatedAt(), row.effectiveStock())),
+                lastModified(Boolean.TRUE.equals(row.getStockSharded()), row.getUpdatedAt()));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, key = "#cursor + ':' + #size")
+    public JsonPayload getProductPage(String cursor, Integer size) {
+        log.debug("Serializing products page, cursor: {}, size: {}", cursor, size);
+        CursorPage<Product> page = productService.getAllProducts(cursor, size);
+
+        List<Object> parts = new ArrayList<>();
+        parts.add("products");
+        parts.add(page.isHasMore());
+        page.getItems().forEach(product -> parts.addAll(versionParts(product)));
+        return serialize(page, EtagUtil.of(parts), -1);
+    }
+
+    private static List<Object> versionParts(Product product) {
+        return versionParts(product.getId(), product.getUpdatedAt(), product.getStockQuantity());
+    }
+
+    private static List<Object> versionParts(Long id, LocalDateTime updatedAt, int stockQuantity) {
+        return List.of(id, String.valueOf(updatedAt), stockQuantity);
+    }
+
+    // Bucket reservations of sharded products do not touch updatedAt, so only the tag covers their stock
+    private static long lastModified(boolean stockSharded, LocalDateTime updatedAt) {
+        return stockSharded ? -1 : EtagUtil.lastModified(updatedAt);
+    }
+
+    private JsonPayload serialize(Object body, String etag, long lastModified) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new JsonPayload(json, json.length >= gzipMinSize ? gzip(json) : null, etag, lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
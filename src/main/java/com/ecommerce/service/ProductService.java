@@ -1,71 +1,140 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.datasource.ConsistencyContext;
+import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.ProductVersionRow;
+import com.ecommerce.model.response.CursorPage;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.CursorUtil;
 import com.ecommerce.util.PatchUtil;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * Product catalog. Entities are never cached: pages and single products are cached as serialized JSON by
+ * {@link ProductJsonService}. Every mutation evicts the product and all cached pages.
+ */
 @Service
 @RequiredArgsConstructor
 @Log4j2
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "ecommerce.service", extraTags = {"service", "products"})
 public class ProductService {
     private final ProductRepository productRepository;
     private final OrderItemRepository orderItemRepository;
+    private final StockBucketService stockBucketService;
 
-    public List<Product> getAllProducts() {
-        log.debug("Fetching all products");
-        return productRepository.findAll();
+    // Not cached itself, pages are cached as serialized JSON by ProductJsonService#getProductPage
+    public CursorPage<Product> getAllProducts(String cursor, Integer size) {
+        log.debug("Fetching products page, cursor: {}, size: {}", cursor, size);
+        int pageSize = CursorUtil.pageSize(size);
+        long afterId = CursorUtil.decode(cursor);
+        // Cache fill: read from the primary so replica lag is not cached past the eviction
+        List<Product> rows = ConsistencyContext.onPrimary(() -> {
+            List<Product> page = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+            return page.stream().anyMatch(Product::isStockShardingEnabled)
+                    ? stockBucketService.toShardedViews(page)
+                    : page;
+        });
+        return CursorUtil.toPage(rows, pageSize, Product::getId);
     }
 
+    // Not cached itself: a detached entity would be shared by every caller, see ProductJsonService#getProduct
     public Product getProductById(Long id) {
         log.debug("Fetching product with id: {}", id);
-        return productRepository.findById(id)
+        return ConsistencyContext.onPrimary(() -> withEffectiveStock(findProduct(id)));
+    }
+
+    public ProductVersionRow getProductVersion(Long id) {
+        return productRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
+    /**
+     * Whether a product read earlier still has its current version (updatedAt and effective stock).
+     * Cache fills check this before storing, so a state that a concurrent mutation already evicted is not put back.
+     */
+    public boolean isCurrent(Product product) {
+        return ConsistencyContext.onPrimary(() -> productRepository.findVersionById(product.getId())
+                .filter(current -> Objects.equals(current.getUpdatedAt(), product.getUpdatedAt())
+                        && Objects.equals(current.effectiveStock(), product.getStockQuantity()))
+                .isPresent());
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, allEntries = true)
+    @Transactional
     public Product createProduct(Product product) {
         log.debug("Creating new product: {}", product.getName());
         return productRepository.save(product);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, allEntries = true)
+    })
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         log.debug("Updating product with id: {}", id);
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         // validateProduct(productDetails);
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
-        product.setStockQuantity(productDetails.getStockQuantity());
-        return productRepository.save(product);
+        if (product.isStockShardingEnabled()) {
+            stockBucketService.resetStock(id, productDetails.getStockQuantity());
+        } else {
+            product.setStockQuantity(productDetails.getStockQuantity());
+        }
+        return withEffectiveStock(productRepository.save(product));
     }
 
     private void validateProduct(Product product) {
         if (product.getName() == null || product.getPrice() == null ||
                 product.getStockQuantity() == null) {
-            throw new IllegalArgumentException("PUT requires all fields: name, price, stockQuantity");
+            throw new InvalidRequestException("PUT requires all fields: name, price, stockQuantity");
         }
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, allEntries = true)
+    })
+    @Transactional
     public Product patchProduct(Long id, Product productDetails) {
         log.debug("Patching product with id: {}", id);
-        Product product = getProductById(id);
+        Product product = findProduct(id);
 
         PatchUtil.copyNonNullProperties(productDetails, product);
 
-        return productRepository.save(product);
+        if (product.isStockShardingEnabled() && productDetails.getStockQuantity() != null) {
+            stockBucketService.resetStock(id, productDetails.getStockQuantity());
+            product.setStockQuantity(0);
+        }
+
+        return withEffectiveStock(productRepository.save(product));
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, allEntries = true)
+    })
+    @Transactional
     public void deleteProduct(Long id) {
         log.debug("Deleting product with id: {}", id);
-        Product product = getProductById(id);
+        Product product = findProduct(id);
 
         if (orderItemRepository.existsByProductId(id)) {
             throw new IllegalStateException(
@@ -73,6 +142,39 @@ public class ProductService {
             );
         }
 
+        if (product.isStockShardingEnabled()) {
+            stockBucketService.deleteBuckets(id);
+        }
         productRepository.delete(product);
     }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, allEntries = true)
+    })
+    @Transactional
+    public Product enableStockSharding(Long id, int buckets) {
+        log.debug("Enabling stock sharding for product with id: {}", id);
+        return withEffectiveStock(stockBucketService.enableSharding(id, buckets));
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_JSON, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGE_JSON, allEntries = true)
+    })
+    @Transactional
+    public Product disableStockSharding(Long id) {
+        log.debug("Disabling stock sharding for product with id: {}", id);
+        return stockBucketService.disableSharding(id);
+    }
+
+    // Managed entity for mutations, reads go through getProductById
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    private Product withEffectiveStock(Product product) {
+        return product.isStockShardingEnabled() ? stockBucketService.toShardedView(product) : product;
+    }
 }
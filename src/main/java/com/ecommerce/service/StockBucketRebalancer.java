@@ -0,0 +1,30 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically evens out the stock buckets of sharded products. Each product is rebalanced in its own
+ * short transaction so reservations are only blocked on one product at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class StockBucketRebalancer {
+    private final ProductRepository productRepository;
+    private final StockBucketService stockBucketService;
+
+    @Scheduled(fixedDelayString = "${ecommerce.stock.buckets.rebalance-interval-ms:30000}")
+    public void rebalanceAll() {
+        for (Long productId : productRepository.findStockShardedIds()) {
+            try {
+                stockBucketService.rebalance(productId);
+            } catch (RuntimeException e) {
+                log.warn("Could not rebalance stock buckets of product {}", productId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.entity.ProductStockBucket;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductStockBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Sharded inventory for hot products.
+ * A sharded product keeps its stock in N bucket rows instead of products.stock_quantity, so concurrent
+ * reservations for the same product update different rows. Only sharded products pay for summing the
+ * buckets on reads.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+@Transactional
+public class StockBucketService {
+    public static final int MIN_BUCKETS = 2;
+    public static final int MAX_BUCKETS = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductStockBucketRepository bucketRepository;
+
+    public Product enableSharding(Long productId, int buckets) {
+        log.debug("Sharding stock of product {} into {} buckets", productId, buckets);
+        if (buckets < MIN_BUCKETS || buckets > MAX_BUCKETS) {
+            throw new InvalidRequestException(
+                    "Bucket count must be between " + MIN_BUCKETS + " and " + MAX_BUCKETS);
+        }
+        Product product = lockProduct(productId);
+        if (product.isStockShardingEnabled()) {
+            throw new IllegalStateException("Stock of product " + productId + " is already sharded");
+        }
+
+        int[] quantities = split(product.getStockQuantity(), buckets);
+        bucketRepository.saveAll(IntStream.range(0, buckets)
+                .mapToObj(i -> ProductStockBucket.builder()
+                        .productId(productId)
+                        .bucketNo(i)
+                        .quantity(quantities[i])
+                        .build())
+                .toList());
+
+        // The column must not be reservable while the buckets hold the stock
+        product.setStockQuantity(0);
+        product.setStockSharded(true);
+        return product;
+    }
+
+    public Product disableSharding(Long productId) {
+        log.debug("Merging stock buckets of product {}", productId);
+        Product product = lockProduct(productId);
+        if (!product.isStockShardingEnabled()) {
+            throw new IllegalStateException("Stock of product " + productId + " is not sharded");
+        }
+
+        int total = bucketRepository.findByProductIdForUpdate(productId).stream()
+                .mapToInt(ProductStockBucket::getQuantity)
+                .sum();
+        bucketRepository.deleteByProductId(productId);
+
+        product.setStockQuantity(product.getStockQuantity() + total);
+        product.setStockSharded(false);
+        return product;
+    }
+
+    public void deleteBuckets(Long productId) {
+        bucketRepository.deleteByProductId(productId);
+    }
+
+    /**
+     * Takes the quantity from a single random bucket that holds enough, falling back to draining several
+     * buckets under lock when no single bucket does. Returns false when the buckets together hold too little;
+     * that is decided on an unlocked sum first, so requests for a sold out product never lock the buckets.
+     */
+    public boolean tryReserve(Long productId, int quantity) {
+        List<Long> candidates = bucketRepository.findIdsWithAtLeast(productId, quantity);
+        int start = candidates.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Long bucketId = candidates.get((start + i) % candidates.size());
+            if (bucketRepository.decrement(bucketId, quantity) == 1) {
+                return true;
+            }
+        }
+        return reserveAcrossBuckets(productId, quantity);
+    }
+
+    /**
+     * Returns the quantity to a random bucket. Returns false when the product has no buckets.
+     */
+    public boolean tryRelease(Long productId, int quantity) {
+        List<Long> bucketIds = bucketRepository.findIdsByProductId(productId);
+        if (bucketIds.isEmpty()) {
+            return false;
+        }
+        Long bucketId = bucketIds.get(ThreadLocalRandom.current().nextInt(bucketIds.size()));
+        return bucketRepository.increment(bucketId, quantity) == 1;
+    }
+
+    /**
+     * Replaces the stock of a sharded product, spreading it evenly over the existing buckets.
+     */
+    public void resetStock(Long productId, int quantity) {
+        List<ProductStockBucket> buckets = bucketRepository.findByProductIdForUpdate(productId);
+        int[] quantities = split(quantity, buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).setQuantity(quantities[i]);
+        }
+    }
+
+    /**
+     * Evens out the buckets of one product so that random picks keep finding stock.
+     */
+    public void rebalance(Long productId) {
+        List<ProductStockBucket> buckets = bucketRepository.findByProductIdForUpdate(productId);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        int min = buckets.stream().mapToInt(ProductStockBucket::getQuantity).min().orElse(0);
+        int max = buckets.stream().mapToInt(ProductStockBucket::getQuantity).max().orElse(0);
+        if (max - min <= 1) {
+            return;
+        }
+        int total = buckets.stream().mapToInt(ProductStockBucket::getQuantity).sum();
+        log.debug("Rebalancing {} units over {} buckets of product {}", total, buckets.size(), productId);
+        int[] quantities = split(total, buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).setQuantity(quantities[i]);
+        }
+    }
+
+    /**
+     * Returns a detached copy of a sharded product carrying the summed bucket stock.
+     * The managed entity is left untouched so that its zero stock column is never flushed over.
+     */
+    @Transactional(readOnly = true)
+    public Product toShardedView(Product product) {
+        return product.toBuilder()
+                .stockQuantity((int) bucketRepository.sumQuantity(product.getId()))
+                .build();
+    }
+
+    /**
+     * Same as {@link #toShardedView(Product)} for a page of products, with one SUM query for all sharded ones.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> toShardedViews(List<Product> products) {
+        List<Long> shardedIds = products.stream()
+                .filter(Product::isStockShardingEnabled)
+                .map(Product::getId)
+                .toList();
+        if (shardedIds.isEmpty()) {
+            return products;
+        }
+
+        Map<Long, Integer> totals = new HashMap<>();
+        for (Object[] row : bucketRepository.sumQuantityByProductIds(shardedIds)) {
+            totals.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        List<Product> views = new ArrayList<>(products.size());
+        for (Product product : products) {
+            views.add(product.isStockShardingEnabled()
+                    ? product.toBuilder().stockQuantity(totals.getOrDefault(product.getId(), 0)).build()
+                    : product);
+        }
+        return views;
+    }
+
+    private boolean reserveAcrossBuckets(Long productId, int quantity) {
+        // Locks are held until the caller's transaction ends, only take them when the request can succeed
+        if (bucketRepository.sumQuantity(productId) < quantity) {
+            return false;
+        }
+        List<ProductStockBucket> buckets = bucketRepository.findByProductIdForUpdate(productId);
+        int total = buckets.stream().mapToInt(ProductStockBucket::getQuantity).sum();
+        if (buckets.isEmpty() || total < quantity) {
+            return false;
+        }
+
+        int remaining = quantity;
+        for (ProductStockBucket bucket : buckets) {
+            int taken = Math.min(bucket.getQuantity(), remaining);
+            bucket.setQuantity(bucket.getQuantity() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    private Product lockProduct(Long productId) {
+        return productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+    }
+
+    static int[] split(int total, int buckets) {
+        int[] quantities = new int[buckets];
+        for (int i = 0; i < buckets; i++) {
+            quantities[i] = total / buckets + (i < total % buckets ? 1 : 0);
+        }
+        return quantities;
+    }
+}
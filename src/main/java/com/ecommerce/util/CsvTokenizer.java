@@ -0,0 +1,149 @@
+package com.ecommerce.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits CSV/TSV records out of a byte buffer (typically a memory-mapped file region) without copying.
+ * Each call to {@link #next()} only records the start and end offsets of the fields of one line;
+ * a field is decoded into a String when it is asked for.
+ * <p>
+ * Fields may be quoted with {@code "}, with {@code ""} for a literal quote. A record is one line,
+ * quoted fields cannot contain line breaks.
+ */
+public final class CsvTokenizer {
+    private static final int MAX_FIELDS = 64;
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteBuffer buffer;
+    private final byte delimiter;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private final boolean[] escaped = new boolean[MAX_FIELDS];
+    private int fieldCount;
+    private int position;
+    private long line;
+    private String error;
+
+    public CsvTokenizer(ByteBuffer buffer, char delimiter) {
+        this.buffer = buffer;
+        this.delimiter = (byte) delimiter;
+        this.position = buffer.position();
+    }
+
+    /**
+     * Moves to the next line. Returns false at the end of the buffer.
+     * A malformed line is still returned, with {@link #error()} set and no fields.
+     */
+    public boolean next() {
+        int limit = buffer.limit();
+        if (position >= limit) {
+            return false;
+        }
+        line++;
+        fieldCount = 0;
+        error = null;
+
+        int pos = position;
+        while (true) {
+            if (fieldCount == MAX_FIELDS) {
+                return fail("More than " + MAX_FIELDS + " fields");
+            }
+            int field = fieldCount++;
+            escaped[field] = false;
+
+            if (pos < limit && buffer.get(pos) == QUOTE) {
+                int start = ++pos;
+                while (true) {
+                    if (pos >= limit || buffer.get(pos) == LF) {
+                        return fail("Unterminated quoted field");
+                    }
+                    if (buffer.get(pos) == QUOTE) {
+                        if (pos + 1 < limit && buffer.get(pos + 1) == QUOTE) {
+                            escaped[field] = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                starts[field] = start;
+                ends[field] = pos++;
+                if (pos < limit && buffer.get(pos) != delimiter && buffer.get(pos) != LF && buffer.get(pos) != CR) {
+                    return fail("Unexpected character after quoted field " + (field + 1));
+                }
+            } else {
+                starts[field] = pos;
+                while (pos < limit && buffer.get(pos) != delimiter && buffer.get(pos) != LF) {
+                    pos++;
+                }
+                int end = pos;
+                if (end > starts[field] && buffer.get(end - 1) == CR) {
+                    end--;
+                }
+                ends[field] = end;
+            }
+
+            if (pos < limit && buffer.get(pos) == CR) {
+                pos++;
+            }
+            if (pos >= limit || buffer.get(pos) == LF) {
+                position = pos + 1;
+                return true;
+            }
+            // Delimiter
+            pos++;
+        }
+    }
+
+    /**
+     * 1-based number of the current line within the buffer.
+     */
+    public long line() {
+        return line;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * True for an empty line, which CSV readers usually skip.
+     */
+    public boolean isBlank() {
+        return error == null && fieldCount == 1 && starts[0] == ends[0];
+    }
+
+    /**
+     * The decoded field, or null for an empty or missing one.
+     */
+    public String field(int index) {
+        if (index < 0 || index >= fieldCount || starts[index] == ends[index]) {
+            return null;
+        }
+        byte[] bytes = new byte[ends[index] - starts[index]];
+        buffer.get(starts[index], bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        return escaped[index] ? value.replace("\"\"", "\"") : value;
+    }
+
+    // Skips the rest of the line
+    private boolean fail(String message) {
+        int limit = buffer.limit();
+        int pos = position;
+        while (pos < limit && buffer.get(pos) != LF) {
+            pos++;
+        }
+        position = pos + 1;
+        fieldCount = 0;
+        error = message;
+        return true;
+    }
+}
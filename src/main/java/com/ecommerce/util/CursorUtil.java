@@ -0,0 +1,72 @@
+package com.ecommerce.util;
+
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.model.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination helpers.
+ * Pages are ordered by id (ids are generated in insertion order, so this follows created_at),
+ * and the cursor is the last id of the previous page encoded as an opaque token.
+ */
+public final class CursorUtil {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PREFIX = "id:";
+
+    private CursorUtil() {
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the id the next page starts after, 0 for the first page.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are both IllegalArgumentException
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Builds a page from rows fetched with limit {@code size + 1}; the extra row only signals that more pages exist.
+     */
+    public static <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, Long> idExtractor) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? encode(idExtractor.apply(items.get(items.size() - 1))) : null;
+
+        return CursorPage.<T>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Strong entity tags built from the version columns (ids and updatedAt) a response is derived from,
+ * so conditional requests can be answered without building the response.
+ */
+public final class EtagUtil {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+    private static final String IDENTITY_SUFFIX = "-identity";
+
+    private EtagUtil() {
+    }
+
+    public static String of(Object... parts) {
+        return of(Arrays.asList(parts));
+    }
+
+    /**
+     * Quoted tag over the string form of the parts, in order.
+     */
+    public static String of(List<?> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '|');
+            }
+            byte[] hash = Arrays.copyOf(digest.digest(), 12);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Tag of the gzip encoded representation. A strong tag must differ between content codings.
+     */
+    public static String gzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + '"';
+    }
+
+    /**
+     * Tag of the uncompressed representation of a body that also has a gzip variant. Bodies without one keep the
+     * plain tag, so the plain tag alone tells that the encoding does not depend on Accept-Encoding.
+     */
+    public static String identity(String etag) {
+        return etag.substring(0, etag.length() - 1) + IDENTITY_SUFFIX + '"';
+    }
+
+    /**
+     * Epoch millis for Last-Modified, -1 (no header) when unknown.
+     */
+    public static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
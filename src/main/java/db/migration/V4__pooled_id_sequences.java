@@ -0,0 +1,43 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Map;
+
+/**
+ * Sequence-backed ids for JDBC batching.
+ * IDENTITY ids are only known after each INSERT, which forces Hibernate to insert rows one at a time.
+ * With sequences the ids are assigned before flush, so inserts go out in JDBC batches.
+ * <p>
+ * A Java migration because each sequence has to start past the ids already in its table,
+ * and {@code ALTER SEQUENCE ... RESTART WITH} only takes a literal.
+ */
+public class V4__pooled_id_sequences extends BaseJavaMigration {
+    // Must match the allocationSize of the entities' @SequenceGenerator: each nextval reserves a block of ids
+    // that the pooled optimizer hands out without further round trips
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "products", "products_seq",
+            "orders", "orders_seq",
+            "order_items", "order_items_seq",
+            "product_stock_buckets", "product_stock_buckets_seq"
+    );
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The pooled optimizer hands out the block ending at the value nextval returns,
+            // so the first value must be at least MAX(id) + block size to stay clear of existing rows
+            jdbcTemplate.execute("CREATE SEQUENCE " + sequence
+                    + " START WITH " + (maxId + ALLOCATION_SIZE) + " INCREMENT BY " + ALLOCATION_SIZE);
+            // Ids now always come from the sequence, nothing else should hand them out
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+        });
+    }
+}
@@ -0,0 +1,24 @@
+-- =========================================================
+-- Sharded stock for hot products
+-- =========================================================
+-- When stock_sharded is true the product's stock lives in product_stock_buckets
+-- and products.stock_quantity is kept at 0, so reservations spread over several rows
+ALTER TABLE products
+    ADD COLUMN stock_sharded BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE product_stock_buckets (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    bucket_no INT NOT NULL,
+    quantity INT NOT NULL,
+
+    CONSTRAINT fk_stock_bucket_product
+        FOREIGN KEY (product_id) REFERENCES products(id),
+
+    CONSTRAINT ck_stock_bucket_quantity
+        CHECK (quantity >= 0)
+);
+
+-- One row per bucket number, also serves lookups and SUM() by product
+CREATE UNIQUE INDEX ux_product_stock_buckets_product_bucket
+    ON product_stock_buckets(product_id, bucket_no);
@@ -0,0 +1,16 @@
+-- =========================================================
+-- Persisted order total
+-- =========================================================
+-- Maintained incrementally by the application with the subtotal delta of each item change.
+-- Existing rows are left NULL here and filled in chunks by OrderTotalBackfillJob,
+-- so the migration does not rewrite the whole table in one transaction.
+-- The default only applies to rows inserted from now on.
+ALTER TABLE orders
+    ADD COLUMN total_amount DECIMAL(12,2);
+
+ALTER TABLE orders
+    ALTER COLUMN total_amount SET DEFAULT 0;
+
+-- Sorting and range filtering of order lists by total, id as keyset tiebreaker
+CREATE INDEX idx_orders_total_amount
+    ON orders(total_amount, id);
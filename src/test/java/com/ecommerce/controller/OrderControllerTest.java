@@ -3,11 +3,14 @@ package com.ecommerce.controller;
 import com.ecommerce.mapper.OrderMapper;
 import com.ecommerce.model.entity.Order;
 import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.request.CheckoutRequest;
 import com.ecommerce.model.request.OrderCreateRequest;
 import com.ecommerce.model.request.OrderItemRequest;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
+import com.ecommerce.model.response.CursorPage;
 import com.ecommerce.model.response.OrderItemResponse;
 import com.ecommerce.model.response.OrderResponse;
+import com.ecommerce.model.response.ResourceVersion;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.service.OrderService;
@@ -18,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -28,11 +32,14 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -80,13 +87,43 @@ class OrderControllerTest {
 
     @Test
     void getAllOrders_ReturnsListOfOrders() throws Exception {
-        when(orderService.getAllOrders()).thenReturn(List.of(order));
+        CursorPage<OrderResponse> page = CursorPage.<OrderResponse>builder()
+                .items(List.of(orderResponse))
+                .size(1)
+                .build();
+        when(orderService.getOrdersPageVersion(null, null)).thenReturn(new ResourceVersion("\"v1\"", -1));
+        when(orderService.getAllOrders(null, null)).thenReturn(page);
 
         mockMvc.perform(get("/api/v1/orders"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].customerName").value("John Doe"));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(jsonPath("$.items[0].customerName").value("John Doe"))
+                .andExpect(jsonPath("$.hasMore").value(false));
 
-        verify(orderService).getAllOrders();
+        verify(orderService).getAllOrders(null, null);
+    }
+
+    @Test
+    void getOrderById_MatchingEtag_ReturnsNotModifiedWithoutLoading() throws Exception {
+        when(orderService.getOrderVersion(1L)).thenReturn(new ResourceVersion("\"v1\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/api/v1/orders/1").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""));
+
+        verify(orderService, never()).getOrderById(any());
+    }
+
+    @Test
+    void getOrderById_StaleEtag_ReturnsOrder() throws Exception {
+        when(orderService.getOrderVersion(1L)).thenReturn(new ResourceVersion("\"v2\"", 1_700_000_000_000L));
+        when(orderService.getOrderById(1L)).thenReturn(orderResponse);
+
+        mockMvc.perform(get("/api/v1/orders/1").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v2\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.customerName").value("John Doe"));
     }
 
     @Test
@@ -112,17 +149,58 @@ class OrderControllerTest {
         verify(orderMapper).toResponse(order);
     }
 
+    @Test
+    void checkout_ValidRequest_ReturnsCreatedOrder() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("John Doe", "john@example.com",
+                List.of(new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 1)));
+
+        when(orderService.checkout(any(CheckoutRequest.class))).thenReturn(order);
+        when(orderMapper.toResponse(order)).thenReturn(orderResponse);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void checkout_InvalidLine_ReturnsBadRequest() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("John Doe", "john@example.com",
+                List.of(new OrderItemRequest(1L, 0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void checkout_MissingEmail_ReturnsBadRequest() throws Exception {
+        CheckoutRequest request = new CheckoutRequest("John Doe", null, List.of(new OrderItemRequest(1L, 1)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderService);
+    }
+
     @Test
     void shouldGetOrderItems() throws Exception {
         Long orderId = 1L;
 
-        OrderItem item = OrderItem.builder()
+        OrderItemResponse item = OrderItemResponse.builder()
                 .id(10L)
                 .quantity(2)
                 .unitPrice(new BigDecimal("100.00"))
                 .subtotal(new BigDecimal("200.00"))
                 .build();
 
+        when(orderService.getOrderVersion(orderId)).thenReturn(new ResourceVersion("\"v1\"", -1));
         when(orderService.getOrderItems(orderId))
                 .thenReturn(List.of(item));
 
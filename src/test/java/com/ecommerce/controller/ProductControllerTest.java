@@ -1,22 +1,35 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.ProductVersionRow;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.service.ProductJsonService;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.util.EtagUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -27,7 +40,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ProductController.class)
-@Import(com.ecommerce.exception.GlobalExceptionHandler.class)
+@Import({com.ecommerce.exception.GlobalExceptionHandler.class, ProductJsonService.class})
+@TestPropertySource(properties = "ecommerce.cache.product-json.gzip-min-size=64")
 class ProductControllerTest {
 
     @Autowired
@@ -39,10 +53,14 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private CacheManager cacheManager;
+
     private Product product;
 
     @BeforeEach
     void setUp() {
+        when(cacheManager.getCache(CacheConfig.PRODUCT_JSON)).thenReturn(new ConcurrentMapCache(CacheConfig.PRODUCT_JSON));
         product = Product.builder()
                 .id(1L)
                 .name("Test Product")
@@ -56,15 +74,38 @@ class ProductControllerTest {
 
     @Test
     void getAllProducts_ReturnsListOfProducts() throws Exception {
-        List<Product> products = Arrays.asList(product);
-        when(productService.getAllProducts()).thenReturn(products);
+        CursorPage<Product> page = CursorPage.<Product>builder()
+                .items(Arrays.asList(product))
+                .size(1)
+                .hasMore(true)
+                .nextCursor("aWQ6MQ")
+                .build();
+        when(productService.getAllProducts(null, 1)).thenReturn(page);
 
-        mockMvc.perform(get("/api/v1/products"))
+        mockMvc.perform(get("/api/v1/products").param("size", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("Test Product"))
-                .andExpect(jsonPath("$[0].price").value(99.99));
+                .andExpect(jsonPath("$.items[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.items[0].price").value(99.99))
+                .andExpect(jsonPath("$.nextCursor").value("aWQ6MQ"));
 
-        verify(productService, times(1)).getAllProducts();
+        verify(productService, times(1)).getAllProducts(null, 1);
+    }
+
+    @Test
+    void getAllProducts_InvalidCursor_ReturnsBadRequest() throws Exception {
+        when(productService.getAllProducts("bad", null)).thenThrow(new InvalidRequestException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/v1/products").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: bad"));
+    }
+
+    @Test
+    void getAllProducts_InternalIllegalArgument_ReturnsServerError() throws Exception {
+        when(productService.getAllProducts(null, null)).thenThrow(new IllegalArgumentException("bug"));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isInternalServerError());
     }
 
     @Test
@@ -79,6 +120,102 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductById(1L);
     }
 
+    @Test
+    void getProductById_AcceptsGzip_ReturnsPreCompressedBody() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        try (GZIPInputStream body = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertEquals("Test Product", objectMapper.readTree(body).get("name").asText());
+        }
+    }
+
+    @Test
+    void getProductById_MatchingEtag_ReturnsNotModified() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.getProductVersion(1L)).thenReturn(version(product));
+
+        String version = EtagUtil.of(1L, String.valueOf(product.getUpdatedAt()), product.getStockQuantity());
+
+        // The body has a gzip variant, so the uncompressed one is tagged as such
+        String etag = mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, EtagUtil.identity(version)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // The gzip representation has its own tag
+        mockMvc.perform(get("/api/v1/products/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, EtagUtil.gzip(version)));
+    }
+
+    @Test
+    void getProductById_MatchingEtagNotCached_AnswersFromVersion() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+        String etag = mockMvc.perform(get("/api/v1/products/1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        when(productService.getProductVersion(1L)).thenReturn(version(product));
+
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    @Test
+    void getProductById_StaleEtag_ReturnsProduct() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.getProductVersion(1L)).thenReturn(version(product));
+
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Product"));
+    }
+
+    @Test
+    void getProductById_GzipRefused_ReturnsPlainJson() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.name").value("Test Product"));
+    }
+
+    @Test
+    void getProductById_Unchanged_ServedFromCache() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.isCurrent(product)).thenReturn(true);
+
+        mockMvc.perform(get("/api/v1/products/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/1")).andExpect(status().isOk());
+
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    @Test
+    void getProductById_ChangedDuringFill_NotCached() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.isCurrent(product)).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/products/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/1")).andExpect(status().isOk());
+
+        verify(productService, times(2)).getProductById(1L);
+    }
+
     @Test
     void createProduct_ValidProduct_ReturnsCreatedProduct() throws Exception {
         when(productService.createProduct(any(Product.class))).thenReturn(product);
@@ -142,4 +279,8 @@ class ProductControllerTest {
 
         verify(productService, times(1)).deleteProduct(1L);
     }
-}
\ No newline at end of file
+
+    private static ProductVersionRow version(Product product) {
+        return new ProductVersionRow(product.getId(), product.getUpdatedAt(), product.getStockQuantity(), false, 0L);
+    }
+}
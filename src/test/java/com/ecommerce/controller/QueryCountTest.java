@@ -0,0 +1,172 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.datasource.QueryCountExtension;
+import com.ecommerce.datasource.QueryCountExtension.QueryCounter;
+import com.ecommerce.filter.SqlStatsFilter;
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts of the order and product endpoints, against the Flyway schema.
+ * Orders have several items on different products, so a lazy load per item or per product would change the count.
+ * {@link OrderControllerTest} and {@link ProductControllerTest} mock the services and cannot see queries.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(QueryCountExtension.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "ecommerce.sql-stats.headers=true"
+})
+class QueryCountTest {
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private List<Product> products;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        products = productRepository.saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> Product.builder()
+                        .name("Product " + i)
+                        .price(new BigDecimal("4.50"))
+                        .stockQuantity(100)
+                        .build())
+                .toList());
+        order = Order.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .build();
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : products) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(2)
+                    .unitPrice(product.getPrice())
+                    .subtotal(new BigDecimal("9.00"))
+                    .build());
+        }
+        order.setOrderItems(items);
+        order = orderRepository.save(order);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void getOrderById(QueryCounter queries) throws Exception {
+        queries.reset();
+        perform(get("/api/v1/orders/{id}", order.getId()), queries);
+        queries.assertCount(2);
+    }
+
+    @Test
+    void getOrderItems(QueryCounter queries) throws Exception {
+        queries.reset();
+        perform(get("/api/v1/orders/{id}/items", order.getId()), queries);
+        queries.assertCount(2);
+    }
+
+    @Test
+    void getAllOrders(QueryCounter queries) throws Exception {
+        queries.reset();
+        perform(get("/api/v1/orders"), queries);
+        queries.assertCount(2);
+    }
+
+    @Test
+    void addItemToOrder(QueryCounter queries) throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .name("Product " + ITEMS)
+                .price(new BigDecimal("4.50"))
+                .stockQuantity(100)
+                .build());
+
+        queries.reset();
+        perform(post("/api/v1/orders/{id}/items", order.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":" + product.getId() + ",\"quantity\":1}"), queries);
+        queries.assertCount(5);
+    }
+
+    @Test
+    void getProductById(QueryCounter queries) throws Exception {
+        queries.reset();
+        perform(get("/api/v1/products/{id}", products.get(0).getId()), queries);
+        // The read and the version check before the result is cached
+        queries.assertCount(2);
+
+        // Served from the product cache
+        queries.reset();
+        perform(get("/api/v1/products/{id}", products.get(0).getId()), queries);
+        queries.assertCount(0);
+    }
+
+    @Test
+    void getProductById_NotModified(QueryCounter queries) throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/products/{id}", products.get(0).getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        // Answered from the version query, the product is neither loaded nor serialized
+        queries.reset();
+        mockMvc.perform(get("/api/v1/products/{id}", products.get(0).getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        queries.assertCount(1);
+    }
+
+    @Test
+    void getAllProducts(QueryCounter queries) throws Exception {
+        queries.reset();
+        perform(get("/api/v1/products"), queries);
+        queries.assertCount(1);
+    }
+
+    // The filter reports the same count as the extension
+    private void perform(RequestBuilder request, QueryCounter queries)
+            throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        assertEquals(String.valueOf(queries.count()), result.getResponse().getHeader(SqlStatsFilter.COUNT_HEADER));
+    }
+}
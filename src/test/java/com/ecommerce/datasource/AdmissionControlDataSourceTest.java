@@ -0,0 +1,88 @@
+package com.ecommerce.datasource;
+
+import com.ecommerce.limiter.RequestClass;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlDataSourceTest {
+
+    private JdbcDataSource h2;
+    private AdmissionGate gate;
+    private AdmissionControlDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        gate = new AdmissionGate(1, AdmissionGate.defaultLanes(1, Duration.ofMillis(100)));
+        dataSource = new AdmissionControlDataSource(h2, gate);
+        RequestClass.set(RequestClass.CHECKOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestClass.clear();
+    }
+
+    @Test
+    void getConnection_HoldsPermitUntilClosed() throws Exception {
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, gate.getInUse(RequestClass.CHECKOUT));
+
+        connection.close();
+        connection.close();
+
+        assertEquals(0, gate.getInUse());
+        assertEquals(1, gate.getAdmitted(RequestClass.CHECKOUT));
+    }
+
+    @Test
+    void getConnection_NoPermitWithinTimeout_Throws() throws Exception {
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+
+        assertEquals(1, gate.getTimedOut(RequestClass.CHECKOUT));
+        assertTrue(gate.getMaxWait(RequestClass.CHECKOUT).toMillis() >= 100);
+    }
+
+    @Test
+    void getConnection_WaiterAdmittedWhenPermitReturned() throws Exception {
+        AdmissionGate patientGate = new AdmissionGate(1, AdmissionGate.defaultLanes(1, Duration.ofSeconds(5)));
+        AdmissionControlDataSource patient = new AdmissionControlDataSource(h2, patientGate);
+        Connection first = patient.getConnection();
+        CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+            RequestClass.set(RequestClass.CHECKOUT);
+            try {
+                return patient.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                RequestClass.clear();
+            }
+        });
+        while (patientGate.getQueueLength(RequestClass.CHECKOUT) == 0) {
+            Thread.sleep(5);
+        }
+
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+
+        assertEquals(2, patientGate.getAdmitted(RequestClass.CHECKOUT));
+        assertEquals(0, patientGate.getInUse());
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.datasource;
+
+import com.ecommerce.limiter.RequestClass;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionGateTest {
+
+    @Test
+    void acquire_LowerClassAtItsCap_WaitsWhileOthersAreAdmitted() throws Exception {
+        AdmissionGate gate = new AdmissionGate(4, lanes(Duration.ofMillis(50)));
+
+        assertTrue(gate.acquire(RequestClass.ADMIN_LIST));
+        assertFalse(gate.acquire(RequestClass.ADMIN_LIST));
+        assertTrue(gate.acquire(RequestClass.CHECKOUT));
+        assertTrue(gate.acquire(RequestClass.CHECKOUT));
+        assertTrue(gate.acquire(RequestClass.CHECKOUT));
+
+        assertEquals(1, gate.getTimedOut(RequestClass.ADMIN_LIST));
+        assertEquals(4, gate.getInUse());
+    }
+
+    @Test
+    void release_HandsPermitsToWaitersByWeight() throws Exception {
+        AdmissionGate gate = new AdmissionGate(1, lanes(Duration.ofSeconds(10)));
+        assertTrue(gate.acquire(RequestClass.CHECKOUT));
+
+        List<RequestClass> order = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch done = new CountDownLatch(6);
+        for (RequestClass requestClass : List.of(RequestClass.ADMIN_LIST, RequestClass.CATALOG_READ,
+                RequestClass.CHECKOUT, RequestClass.CHECKOUT, RequestClass.CHECKOUT, RequestClass.CHECKOUT)) {
+            executor.execute(() -> {
+                try {
+                    if (gate.acquire(requestClass)) {
+                        order.add(requestClass);
+                        gate.release(requestClass);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        while (queued(gate) < 6) {
+            Thread.sleep(5);
+        }
+
+        gate.release(RequestClass.CHECKOUT);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Weights 8:2:1, the checkouts go first and the admin list last
+        assertEquals(6, order.size());
+        assertEquals(RequestClass.CHECKOUT, order.get(0));
+        assertEquals(RequestClass.ADMIN_LIST, order.get(5));
+        assertEquals(0, gate.getInUse());
+    }
+
+    private static int queued(AdmissionGate gate) {
+        int queued = 0;
+        for (RequestClass requestClass : RequestClass.values()) {
+            queued += gate.getQueueLength(requestClass);
+        }
+        return queued;
+    }
+
+    private static Map<RequestClass, AdmissionGate.Lane> lanes(Duration timeout) {
+        Map<RequestClass, AdmissionGate.Lane> lanes = new EnumMap<>(RequestClass.class);
+        lanes.put(RequestClass.CHECKOUT, new AdmissionGate.Lane(8, 4, timeout));
+        lanes.put(RequestClass.ORDER_MUTATION, new AdmissionGate.Lane(4, 4, timeout));
+        lanes.put(RequestClass.CATALOG_READ, new AdmissionGate.Lane(2, 2, timeout));
+        lanes.put(RequestClass.MAINTENANCE, new AdmissionGate.Lane(1, 1, timeout));
+        lanes.put(RequestClass.ADMIN_LIST, new AdmissionGate.Lane(1, 1, timeout));
+        return lanes;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.datasource;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the SQL statements Hibernate runs on the test thread, MockMvc requests included.
+ * Test methods take a {@link QueryCounter} parameter, reset it after their setup and assert the exact count,
+ * so a changed fetch plan (an N+1, a lost fetch join) fails the build.
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(QueryCounter.class, new QueryCounter(SqlStats.begin()));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryCounter counter = context.getStore(NAMESPACE).remove(QueryCounter.class, QueryCounter.class);
+        if (counter != null) {
+            SqlStats.end(counter.scope);
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == QueryCounter.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(QueryCounter.class, QueryCounter.class);
+    }
+
+    public static final class QueryCounter {
+        private final SqlStats.Scope scope;
+
+        private QueryCounter(SqlStats.Scope scope) {
+            this.scope = scope;
+        }
+
+        public long count() {
+            return scope.getStatements();
+        }
+
+        public void reset() {
+            scope.reset();
+        }
+
+        public void assertCount(int expected) {
+            assertEquals(expected, scope.getStatements(), "SQL statements");
+        }
+    }
+}
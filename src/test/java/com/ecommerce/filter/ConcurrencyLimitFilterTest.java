@@ -0,0 +1,77 @@
+package com.ecommerce.filter;
+
+import com.ecommerce.limiter.AimdLimiter;
+import com.ecommerce.limiter.EndpointGroup;
+import com.ecommerce.limiter.EndpointLimiters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+
+    private final AimdLimiter catalogReads = new AimdLimiter(1, 1, 1, Duration.ofSeconds(1), 0.9);
+    private final AimdLimiter orderWrites = new AimdLimiter(1, 1, 1, Duration.ofSeconds(1), 0.9);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+            new EndpointLimiters(Map.of(EndpointGroup.CATALOG_READ, catalogReads, EndpointGroup.ORDER_WRITE, orderWrites)),
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            Duration.ofSeconds(2));
+
+    @Test
+    void groupAtLimit_Returns503WithRetryAfter() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    MockHttpServletResponse rejected = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), rejected,
+                            new MockFilterChain());
+                    nested.set(rejected);
+                });
+
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("2", nested.get().getHeader("Retry-After"));
+        assertTrue(nested.get().getContentAsString().contains("catalog-read"));
+        assertEquals(1, catalogReads.getRejected());
+        assertEquals(0, catalogReads.getInFlight());
+    }
+
+    @Test
+    void otherGroup_IsNotAffected() throws Exception {
+        AtomicReference<Integer> nestedStatus = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    MockHttpServletResponse accepted = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/orders/1/items"), accepted,
+                            new MockFilterChain());
+                    nestedStatus.set(accepted.getStatus());
+                });
+
+        assertEquals(200, nestedStatus.get());
+        assertEquals(1, orderWrites.getAccepted());
+    }
+
+    @Test
+    void endpointGroup_ClassifiesByPathAndMethod() {
+        assertEquals(EndpointGroup.CATALOG_READ, EndpointGroup.of(new MockHttpServletRequest("GET", "/api/v1/products")));
+        assertEquals(EndpointGroup.CATALOG_WRITE, EndpointGroup.of(new MockHttpServletRequest("PATCH", "/api/v1/products/1")));
+        assertEquals(EndpointGroup.ORDER_READ, EndpointGroup.of(new MockHttpServletRequest("GET", "/api/v1/order-items")));
+        assertEquals(EndpointGroup.ORDER_WRITE, EndpointGroup.of(new MockHttpServletRequest("POST", "/api/v1/orders/checkout")));
+        assertEquals(EndpointGroup.ADMIN, EndpointGroup.of(new MockHttpServletRequest("GET", "/api/v1/admin/limits")));
+        assertEquals(EndpointGroup.ADMIN, EndpointGroup.of(new MockHttpServletRequest("GET", "/api/v1/admin/orders/exports/1")));
+        assertEquals(EndpointGroup.ADMIN_BULK, EndpointGroup.of(new MockHttpServletRequest("POST", "/api/v1/admin/products/import")));
+        assertEquals(EndpointGroup.ADMIN_BULK, EndpointGroup.of(new MockHttpServletRequest("GET", "/api/v1/admin/orders/exports/1/file")));
+        assertNull(EndpointGroup.of(new MockHttpServletRequest("GET", "/swagger-ui.html")));
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.filter;
+
+import com.ecommerce.datasource.ConsistencyContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistencyTokenFilterTest {
+
+    private final ConsistencyTokenFilter filter = new ConsistencyTokenFilter(Duration.ofSeconds(5));
+
+    @Test
+    void recentToken_RequiresPrimary() throws Exception {
+        assertTrue(primaryRequiredFor(Long.toString(System.currentTimeMillis() - 1000)));
+    }
+
+    @Test
+    void staleMissingOrInvalidToken_AllowsReplica() throws Exception {
+        assertFalse(primaryRequiredFor(Long.toString(System.currentTimeMillis() - 60_000)));
+        assertFalse(primaryRequiredFor(null));
+        assertFalse(primaryRequiredFor("not-a-token"));
+        assertFalse(primaryRequiredFor(Long.toString(System.currentTimeMillis() + 60_000)));
+    }
+
+    @Test
+    void committedWrite_SetsTokenHeader() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response,
+                (request, servletResponse) -> ConsistencyContext.writeCommitted(1234L));
+
+        assertEquals("1234", response.getHeader(ConsistencyTokenFilter.HEADER));
+        assertFalse(ConsistencyContext.isPrimaryRequired());
+    }
+
+    private boolean primaryRequiredFor(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader(ConsistencyTokenFilter.HEADER, token);
+        }
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (servletRequest, response) -> primaryRequired.set(ConsistencyContext.isPrimaryRequired()));
+        return primaryRequired.get();
+    }
+}
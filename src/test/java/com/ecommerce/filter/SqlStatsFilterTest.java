@@ -0,0 +1,44 @@
+package com.ecommerce.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SqlStatsFilterTest {
+
+    private final SqlStatsFilter filter = new SqlStatsFilter(10, Map.of(), true);
+
+    @Test
+    void apiRequest_SetsHeadersAndKeepsBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), response,
+                (request, servletResponse) -> servletResponse.getWriter().write("{}"));
+
+        assertEquals("0", response.getHeader(SqlStatsFilter.COUNT_HEADER));
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void adminRequest_IsNotBuffered() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Object> passed = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/admin/orders/exports/1/file"), response,
+                (request, servletResponse) -> {
+                    passed.set(servletResponse);
+                    servletResponse.setContentLength(4);
+                });
+
+        assertSame(response, passed.get());
+        assertEquals(4, response.getContentLength());
+        assertNull(response.getHeader(SqlStatsFilter.COUNT_HEADER));
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdLimiterTest {
+
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private final AimdLimiter limiter = new AimdLimiter(2, 1, 4, Duration.ofMillis(100), 0.5);
+
+    @Test
+    void tryAcquire_AtLimit_Rejects() {
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(2, limiter.getAccepted());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void release_FastWhileBusy_IncreasesUpToMax() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(System.nanoTime());
+            limiter.release(System.nanoTime());
+        }
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_FastAtLowUtilization_StopsIncreasing() {
+        limiter.tryAcquire();
+        limiter.release(System.nanoTime());
+        limiter.tryAcquire();
+        limiter.release(System.nanoTime());
+
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void release_Slow_CutsOnceForRequestsRunningAtTheCut() throws Exception {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 8, Duration.ofMillis(50), 0.5);
+        long start = System.nanoTime() - SLOW;
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(start);
+        limiter.release(start);
+        assertEquals(4, limiter.getLimit());
+
+        long afterCut = System.nanoTime();
+        limiter.tryAcquire();
+        Thread.sleep(60);
+        limiter.release(afterCut);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void fixed_IgnoresLatency() {
+        AimdLimiter limiter = AimdLimiter.fixed(2);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(System.nanoTime() - SLOW * 60);
+            limiter.release(System.nanoTime());
+        }
+
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
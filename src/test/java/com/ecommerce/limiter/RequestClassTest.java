@@ -0,0 +1,35 @@
+package com.ecommerce.limiter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestClassTest {
+
+    @Test
+    void of_ClassifiesByPathAndMethod() {
+        assertEquals(RequestClass.CHECKOUT, classify("POST", "/api/v1/orders"));
+        assertEquals(RequestClass.CHECKOUT, classify("POST", "/api/v1/orders/checkout"));
+        assertEquals(RequestClass.CHECKOUT, classify("POST", "/api/v1/orders/12/items"));
+        assertEquals(RequestClass.ORDER_MUTATION, classify("PUT", "/api/v1/orders/12/items/3"));
+        assertEquals(RequestClass.ORDER_MUTATION, classify("DELETE", "/api/v1/order-items/3"));
+        assertEquals(RequestClass.CATALOG_READ, classify("GET", "/api/v1/products"));
+        assertEquals(RequestClass.CATALOG_READ, classify("GET", "/api/v1/orders/12"));
+        assertEquals(RequestClass.ADMIN_LIST, classify("GET", "/api/v1/orders"));
+        assertEquals(RequestClass.MAINTENANCE, classify("PATCH", "/api/v1/products/1"));
+        assertEquals(RequestClass.MAINTENANCE, classify("POST", "/api/v1/products"));
+        assertEquals(RequestClass.MAINTENANCE, classify("POST", "/api/v1/admin/orders/import"));
+        assertEquals(RequestClass.MAINTENANCE, classify("POST", "/api/v1/admin/products/import"));
+        assertEquals(RequestClass.ADMIN_LIST, classify("GET", "/api/v1/admin/orders/exports/1"));
+    }
+
+    @Test
+    void current_OutsideRequest_IsMaintenance() {
+        assertEquals(RequestClass.MAINTENANCE, RequestClass.current());
+    }
+
+    private static RequestClass classify(String method, String uri) {
+        return RequestClass.of(new MockHttpServletRequest(method, uri));
+    }
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.OrderItem;
+import com.ecommerce.model.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the Flyway schema so that the pooled sequences of the migrations are the ones in use.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTest {
+    private static final int ITEMS = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void saveOrderWithItems_InsertsInBatches() {
+        List<Product> products = productRepository.saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> Product.builder()
+                        .name("Product " + i)
+                        .price(new BigDecimal("9.99"))
+                        .stockQuantity(10)
+                        .build())
+                .toList());
+        entityManager.flush();
+        statistics.clear();
+
+        Order order = Order.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .build();
+        for (Product product : products) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(1)
+                    .unitPrice(product.getPrice())
+                    .subtotal(product.getPrice())
+                    .build());
+        }
+        orderRepository.save(order);
+        entityManager.flush();
+
+        assertEquals(ITEMS + 1, statistics.getEntityInsertCount());
+        // One id block per sequence and one batched INSERT per table, instead of one INSERT per row
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "Expected at most 4 statements, got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addToTotalAmount_NullTotal_RecomputesFromItems() {
+        Product product = productRepository.save(Product.builder()
+                .name("Laptop")
+                .price(new BigDecimal("999.99"))
+                .stockQuantity(10)
+                .build());
+        Product other = productRepository.save(Product.builder()
+                .name("Mouse")
+                .price(new BigDecimal("25.00"))
+                .stockQuantity(10)
+                .build());
+        Order order = Order.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .build();
+        order.addItem(OrderItem.builder()
+                .product(product)
+                .quantity(2)
+                .unitPrice(product.getPrice())
+                .subtotal(new BigDecimal("1999.98"))
+                .build());
+        orderRepository.save(order);
+        entityManager.flush();
+        // An order that predates the column and has not been backfilled yet
+        entityManager.createNativeQuery("update orders set total_amount = null where id = :id")
+                .setParameter("id", order.getId())
+                .executeUpdate();
+
+        // Not flushed yet, the update flushes it first so the sum includes it
+        order.addItem(OrderItem.builder()
+                .product(other)
+                .quantity(1)
+                .unitPrice(other.getPrice())
+                .subtotal(new BigDecimal("25.00"))
+                .build());
+        orderRepository.addToTotalAmount(order.getId(), new BigDecimal("25.00"));
+        entityManager.clear();
+
+        assertEquals(new BigDecimal("2024.98"), orderRepository.findById(order.getId()).orElseThrow().getTotalAmount());
+    }
+
+    @Test
+    void addToTotalAmount_KnownTotal_AddsDelta() {
+        Order order = orderRepository.save(Order.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+        entityManager.flush();
+
+        orderRepository.addToTotalAmount(order.getId(), new BigDecimal("-2.50"));
+        entityManager.clear();
+
+        assertEquals(new BigDecimal("7.50"), orderRepository.findById(order.getId()).orElseThrow().getTotalAmount());
+    }
+
+    @Test
+    void saveProducts_AllocatesIdsFromOneSequenceBlock() {
+        statistics.clear();
+
+        productRepository.saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> Product.builder()
+                        .name("Product " + i)
+                        .price(BigDecimal.ONE)
+                        .stockQuantity(1)
+                        .build())
+                .toList());
+        entityManager.flush();
+
+        assertEquals(ITEMS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 statements, got " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.response.ExportJobResponse;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.SequenceIdAllocator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs against the Flyway schema, the export reads committed data from its own thread.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({OrderExportService.class, OrderImportService.class, SequenceIdAllocator.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "ecommerce.orders.export.chunk-size=2"
+})
+class OrderExportServiceTest {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderImportService orderImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        Long laptopId = productRepository.save(product("Laptop")).getId();
+        Long mouseId = productRepository.save(product("Mouse, wireless")).getId();
+        String input = String.join("\n",
+                order("Alice", "[" + item(laptopId, 1, "1000.00") + "," + item(mouseId, 2, "25.50") + "]"),
+                order("Bob", "[" + item(mouseId, 1, "25.00") + "]"),
+                order("Carol", "[]"));
+        orderImportService.importOrders(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void export_Ndjson_WritesOneOrderPerLineAcrossChunks() throws Exception {
+        ExportJobResponse job = awaitCompletion(orderExportService.startExport(OrderExportService.Format.NDJSON));
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(3, job.getOrdersWritten());
+        List<String> lines = Files.readAllLines(orderExportService.getExportFile(job.getId()));
+        assertEquals(3, lines.size());
+        assertEquals(job.getSizeBytes(), Files.size(orderExportService.getExportFile(job.getId())));
+
+        JsonNode alice = objectMapper.readTree(lines.get(0));
+        assertEquals("Alice", alice.get("customerName").asText());
+        assertEquals(0, new BigDecimal("1051.00").compareTo(alice.get("totalAmount").decimalValue()));
+        assertEquals(2, alice.get("items").size());
+        assertEquals("Mouse, wireless", alice.get("items").get(1).get("productName").asText());
+        assertEquals(0, objectMapper.readTree(lines.get(2)).get("items").size());
+    }
+
+    @Test
+    void export_Csv_WritesOneLinePerItemAndQuotesFields() throws Exception {
+        ExportJobResponse job = awaitCompletion(orderExportService.startExport(OrderExportService.Format.CSV));
+
+        List<String> lines = Files.readAllLines(orderExportService.getExportFile(job.getId()));
+        assertEquals(5, lines.size());
+        assertEquals(13, lines.get(1).split(",", -1).length);
+        assertEquals(2, lines.stream().filter(line -> line.contains("\"Mouse, wireless\"")).count());
+        assertEquals(",,,,,", lines.get(4).substring(lines.get(4).length() - 5));
+    }
+
+    @Test
+    void getExportFile_UnknownJob_Throws() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderExportService.getExportFile("missing"));
+    }
+
+    private ExportJobResponse awaitCompletion(ExportJobResponse job) throws InterruptedException {
+        for (int i = 0; i < 100 && "RUNNING".equals(job.getStatus()); i++) {
+            Thread.sleep(50);
+            job = orderExportService.getExport(job.getId());
+        }
+        return job;
+    }
+
+    private static Product product(String name) {
+        return Product.builder().name(name).price(BigDecimal.TEN).stockQuantity(5).build();
+    }
+
+    private static String order(String name, String items) {
+        return "{\"customerName\":\"" + name + "\",\"customerEmail\":\"" + name.toLowerCase() + "@example.com\","
+                + "\"status\":\"COMPLETED\",\"createdAt\":\"2024-03-01T10:15:00\",\"items\":" + items + "}";
+    }
+
+    private static String item(Long productId, int quantity, String unitPrice) {
+        return "{\"productId\":" + productId + ",\"quantity\":" + quantity + ",\"unitPrice\":" + unitPrice + "}";
+    }
+}
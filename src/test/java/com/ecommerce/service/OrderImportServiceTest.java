@@ -0,0 +1,189 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.entity.Order;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.request.OrderImportLine;
+import com.ecommerce.model.response.OrderImportReport;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.SequenceIdAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs against the Flyway schema, chunks are committed so the test itself is not transactional.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({OrderImportService.class, SequenceIdAllocator.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "ecommerce.orders.import.chunk-size=2",
+        "ecommerce.orders.import.product-lookup-batch-size=1"
+})
+class OrderImportServiceTest {
+
+    @Autowired
+    private OrderImportService orderImportService;
+
+    @SpyBean
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long laptopId;
+    private Long mouseId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        laptopId = productRepository.save(product("Laptop")).getId();
+        mouseId = productRepository.save(product("Mouse")).getId();
+    }
+
+    @Test
+    void importOrders_WritesValidLinesInChunksAndReportsRejected() {
+        String input = String.join("\n",
+                order("Alice", "[" + item(laptopId, 1, "1000.00") + "," + item(mouseId, 2, "25.50") + "]"),
+                "{not json",
+                order("Bob", "[" + item(mouseId, 1, "25.00") + "]"),
+                "",
+                order("Carol", "[" + item(mouseId, 1, "25.00") + "," + item(mouseId, 1, "25.00") + "]"),
+                order("Dave", "[" + item(999_999L, 1, "5.00") + "]"),
+                order("Eve", "[" + item(laptopId, 0, "5.00") + "]"),
+                order("Frank", "[]"));
+
+        OrderImportReport report = orderImportService.importOrders(stream(input));
+
+        assertEquals(7, report.getLinesRead());
+        assertEquals(3, report.getOrdersImported());
+        assertEquals(3, report.getItemsImported());
+        assertEquals(4, report.getOrdersRejected());
+        assertEquals(4, report.getChunks().size());
+        assertEquals(List.of(2L, 5L, 6L, 7L), report.getErrors().stream().map(e -> e.getLine()).sorted().toList());
+
+        assertEquals(new BigDecimal("1051.00"), jdbcTemplate.queryForObject(
+                "SELECT total_amount FROM orders WHERE customer_name = 'Alice'", BigDecimal.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT total_amount FROM orders WHERE customer_name = 'Frank'", BigDecimal.class).signum());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+    }
+
+    @Test
+    void importOrders_SharesIdSequencesWithEntities() {
+        orderImportService.importOrders(stream(order("Alice", "[" + item(laptopId, 1, "10.00") + "]")));
+
+        Order saved = orderRepository.save(Order.builder()
+                .customerName("Bob")
+                .customerEmail("bob@example.com")
+                .status(Order.OrderStatus.PENDING)
+                .build());
+
+        assertNotNull(saved.getId());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM orders", Integer.class));
+    }
+
+    @Test
+    void importOrders_ChunkFailure_RollsBackChunkOnly() {
+        String input = String.join("\n",
+                order("Alice", "[" + item(laptopId, 1, "10.00") + "]"),
+                order("Bob", "[" + item(laptopId, 1, "10.00") + "]"),
+                order("Carol", "[" + item(mouseId, 1, "10.00") + "]"));
+        jdbcTemplate.execute("ALTER TABLE orders ADD CONSTRAINT ck_no_bob CHECK (customer_name <> 'Bob')");
+        try {
+            OrderImportReport report = orderImportService.importOrders(stream(input));
+
+            assertEquals(1, report.getOrdersImported());
+            assertEquals(2, report.getOrdersRejected());
+            assertNotNull(report.getChunks().get(0).getError());
+            assertNull(report.getChunks().get(1).getError());
+            assertEquals(List.of("Carol"), jdbcTemplate.queryForList("SELECT customer_name FROM orders", String.class));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE orders DROP CONSTRAINT ck_no_bob");
+        }
+    }
+
+    @Test
+    void importOrders_TooManyItems_RejectsLine() {
+        String items = LongStream.rangeClosed(1, OrderImportLine.MAX_ITEMS + 1)
+                .mapToObj(id -> item(id, 1, "1.00"))
+                .collect(Collectors.joining(",", "[", "]"));
+
+        OrderImportReport report = orderImportService.importOrders(stream(order("Alice", items)));
+
+        assertEquals(0, report.getOrdersImported());
+        assertEquals(1, report.getOrdersRejected());
+        assertEquals(1L, report.getErrors().get(0).getLine());
+        verify(productRepository, never()).findExistingIds(any());
+    }
+
+    @Test
+    void importOrders_ProductLookupFailure_RejectsChunkOnly() {
+        String input = String.join("\n",
+                order("Alice", "[" + item(laptopId, 1, "10.00") + "]"),
+                order("Bob", "[" + item(laptopId, 1, "10.00") + "]"),
+                order("Carol", "[" + item(mouseId, 1, "10.00") + "]"));
+        doThrow(new DataAccessResourceFailureException("lookup failed"))
+                .doReturn(List.of(mouseId))
+                .when(productRepository).findExistingIds(any());
+
+        OrderImportReport report = orderImportService.importOrders(stream(input));
+
+        assertEquals(1, report.getOrdersImported());
+        assertEquals(2, report.getOrdersRejected());
+        assertEquals("lookup failed", report.getChunks().get(0).getError());
+        assertEquals(List.of("Carol"), jdbcTemplate.queryForList("SELECT customer_name FROM orders", String.class));
+    }
+
+    private static Product product(String name) {
+        return Product.builder().name(name).price(BigDecimal.TEN).stockQuantity(5).build();
+    }
+
+    private static String order(String name, String items) {
+        return "{\"customerName\":\"" + name + "\",\"customerEmail\":\"" + name.toLowerCase() + "@example.com\","
+                + "\"status\":\"COMPLETED\",\"createdAt\":\"2024-03-01T10:15:00\",\"items\":" + items + "}";
+    }
+
+    private static String item(Long productId, int quantity, String unitPrice) {
+        return "{\"productId\":" + productId + ",\"quantity\":" + quantity + ",\"unitPrice\":" + unitPrice + "}";
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,6 +5,8 @@ import com.ecommerce.model.entity.Order;
 import com.ecommerce.model.entity.OrderItem;
 import com.ecommerce.model.entity.Product;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.model.response.OrderItemResponse;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -23,6 +26,8 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,6 +43,9 @@ class OrderItemServiceTest {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
     @InjectMocks
     private OrderItemService orderItemService;
 
@@ -68,32 +76,33 @@ class OrderItemServiceTest {
                 .product(product)
                 .quantity(2)
                 .unitPrice(product.getPrice())
+                .subtotal(new BigDecimal("2000.00"))
                 .build();
     }
 
     @Test
     void getAllOrderItems_ReturnsList() {
-        when(orderItemRepository.findAll()).thenReturn(List.of(orderItem));
+        when(orderItemRepository.findResponsesAfter(0L, Limit.of(21))).thenReturn(List.of(itemResponse()));
 
-        List<OrderItem> result = orderItemService.getAllOrderItems();
+        CursorPage<OrderItemResponse> result = orderItemService.getAllOrderItems(null, null);
 
-        assertEquals(1, result.size());
-        verify(orderItemRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        verify(orderItemRepository).findResponsesAfter(0L, Limit.of(21));
     }
 
     @Test
     void getOrderItemById_Existing_ReturnsItem() {
-        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
+        when(orderItemRepository.findResponseById(1L)).thenReturn(Optional.of(itemResponse()));
 
-        OrderItem result = orderItemService.getOrderItemById(1L);
+        OrderItemResponse result = orderItemService.getOrderItemById(1L);
 
         assertEquals(1L, result.getId());
-        verify(orderItemRepository).findById(1L);
+        assertEquals("Laptop", result.getProductName());
     }
 
     @Test
     void getOrderItemById_NotFound_ThrowsException() {
-        when(orderItemRepository.findById(99L)).thenReturn(Optional.empty());
+        when(orderItemRepository.findResponseById(99L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> orderItemService.getOrderItemById(99L));
@@ -122,16 +131,18 @@ class OrderItemServiceTest {
                 .product(productLaptop)
                 .quantity(2)
                 .unitPrice(productLaptop.getPrice())
+                .subtotal(new BigDecimal("2000.00"))
                 .build();
 
         OrderItemUpdateRequest request = new OrderItemUpdateRequest(4);
 
-        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItemLaptop));
+        when(orderItemRepository.findWithProductById(1L)).thenReturn(Optional.of(orderItemLaptop));
         when(orderItemRepository.save(any(OrderItem.class))).thenReturn(orderItemLaptop);
 
         OrderItem result = orderItemService.updateOrderItem(1L, request);
 
-        assertEquals(8, productLaptop.getStockQuantity());
+        verify(stockReservationService).adjust(productLaptop, 2);
+        verify(orderRepository).addToTotalAmount(1L, new BigDecimal("2000.00"));
         assertEquals(4, result.getQuantity());
     }
 
@@ -139,19 +150,26 @@ class OrderItemServiceTest {
     void updateOrderItem_InsufficientStock_ThrowsException() {
         OrderItemUpdateRequest request = new OrderItemUpdateRequest(20);
 
-        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
+        when(orderItemRepository.findWithProductById(1L)).thenReturn(Optional.of(orderItem));
+        doThrow(new IllegalStateException("Not enough stock"))
+                .when(stockReservationService).adjust(product, 18);
 
         assertThrows(IllegalStateException.class,
                 () -> orderItemService.updateOrderItem(1L, request));
+        verify(orderItemRepository, never()).save(any());
     }
 
     @Test
     void deleteOrderItem_Existing_DeletesSuccessfully() {
-        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
+        when(orderItemRepository.findWithProductById(1L)).thenReturn(Optional.of(orderItem));
 
         orderItemService.deleteOrderItem(1L);
 
         verify(orderItemRepository).delete(orderItem);
+        verify(orderRepository).addToTotalAmount(1L, new BigDecimal("-2000.00"));
     }
-}
 
+    private OrderItemResponse itemResponse() {
+        return new OrderItemResponse(1L, 1L, "Laptop", 2, new BigDecimal("1000.00"), new BigDecimal("2000.00"));
+    }
+}
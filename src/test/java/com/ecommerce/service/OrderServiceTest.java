@@ -1,23 +1,37 @@
 package com.ecommerce.service;
 
+import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.mapper.OrderItemMapper;
+import com.ecommerce.mapper.OrderMapper;
 import com.ecommerce.model.entity.Order;
 import com.ecommerce.model.entity.OrderItem;
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.OrderLineRow;
+import com.ecommerce.model.projection.VersionRow;
+import com.ecommerce.model.request.CheckoutRequest;
 import com.ecommerce.model.request.OrderCreateRequest;
 import com.ecommerce.model.request.OrderItemRequest;
 import com.ecommerce.model.request.OrderItemUpdateRequest;
 import com.ecommerce.model.request.OrderUpdateRequest;
+import com.ecommerce.model.response.CursorPage;
+import com.ecommerce.model.response.OrderResponse;
+import com.ecommerce.model.response.ResourceVersion;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -35,6 +49,15 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Spy
+    private OrderMapper orderMapper = new OrderMapper(new OrderItemMapper());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private OrderService orderService;
 
@@ -72,27 +95,44 @@ class OrderServiceTest {
 
     @Test
     void getAllOrders_ReturnsListOfOrders() {
-        when(orderRepository.findAll()).thenReturn(List.of(order));
-
-        List<Order> result = orderService.getAllOrders();
-
-        assertEquals(1, result.size());
-        verify(orderRepository).findAll();
+        when(orderRepository.findLinesAfter(0L, 21)).thenReturn(List.of(
+                line(1L, 1L, new BigDecimal("4000.00")),
+                line(1L, 2L, new BigDecimal("4000.00")),
+                line(2L, null, BigDecimal.ZERO)));
+
+        CursorPage<OrderResponse> result = orderService.getAllOrders(null, null);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(2, result.getItems().get(0).getItems().size());
+        assertEquals(new BigDecimal("4000.00"), result.getItems().get(0).getTotalAmount());
+        assertTrue(result.getItems().get(1).getItems().isEmpty());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void getOrderById_ExistingId_ReturnsOrder() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findLinesByOrderId(1L)).thenReturn(List.of(line(1L, 1L, new BigDecimal("2000.00"))));
 
-        Order result = orderService.getOrderById(1L);
+        OrderResponse result = orderService.getOrderById(1L);
 
         assertEquals("John Doe", result.getCustomerName());
-        verify(orderRepository).findById(1L);
+        assertEquals(new BigDecimal("2000.00"), result.getTotalAmount());
+        assertEquals("Laptop", result.getItems().get(0).getProductName());
+        verify(orderRepository, never()).findWithItemsById(any());
+    }
+
+    @Test
+    void getOrderById_TotalNotBackfilled_SumsSubtotals() {
+        when(orderRepository.findLinesByOrderId(1L)).thenReturn(List.of(line(1L, 1L, null), line(1L, 2L, null)));
+
+        OrderResponse result = orderService.getOrderById(1L);
+
+        assertEquals(new BigDecimal("4000.00"), result.getTotalAmount());
     }
 
     @Test
     void getOrderById_NotFound_ThrowsException() {
-        when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+        when(orderRepository.findLinesByOrderId(99L)).thenReturn(List.of());
 
         assertThrows(
                 ResourceNotFoundException.class,
@@ -100,6 +140,46 @@ class OrderServiceTest {
         );
     }
 
+    @Test
+    void getOrderItems_OrderWithoutItems_ReturnsEmptyList() {
+        when(orderRepository.findLinesByOrderId(2L)).thenReturn(List.of(line(2L, null, BigDecimal.ZERO)));
+
+        assertTrue(orderService.getOrderItems(2L).isEmpty());
+    }
+
+    @Test
+    void getOrderVersion_ChangesWithProductUpdate() {
+        LocalDateTime orderUpdated = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime productUpdated = LocalDateTime.of(2024, 1, 2, 10, 0);
+        when(orderRepository.findVersionById(1L))
+                .thenReturn(Optional.of(new VersionRow(1L, orderUpdated, orderUpdated)))
+                .thenReturn(Optional.of(new VersionRow(1L, orderUpdated, productUpdated)));
+
+        ResourceVersion before = orderService.getOrderVersion(1L);
+        ResourceVersion after = orderService.getOrderVersion(1L);
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(after.getLastModified() > before.getLastModified());
+    }
+
+    @Test
+    void getOrderVersion_NotFound_ThrowsException() {
+        when(orderRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderVersion(99L));
+    }
+
+    @Test
+    void getOrdersPageVersion_IgnoresLookaheadRowVersion() {
+        LocalDateTime updated = LocalDateTime.of(2024, 1, 1, 10, 0);
+        when(orderRepository.findVersionsAfter(0L, 2))
+                .thenReturn(List.of(new VersionRow(1L, updated, null), new VersionRow(2L, updated, null)))
+                .thenReturn(List.of(new VersionRow(1L, updated, null), new VersionRow(2L, updated.plusDays(1), null)));
+
+        assertEquals(orderService.getOrdersPageVersion(null, 1).getEtag(),
+                orderService.getOrdersPageVersion(null, 1).getEtag());
+    }
+
     @Test
     void createOrder_ValidRequest_CreatesOrder() {
         OrderCreateRequest request = new OrderCreateRequest();
@@ -115,13 +195,71 @@ class OrderServiceTest {
         verify(orderRepository).save(any(Order.class));
     }
 
+    @Test
+    void checkout_MergesLinesAndReservesInProductIdOrder() {
+        Product mouse = Product.builder().id(2L).name("Mouse").price(new BigDecimal("25.00")).stockQuantity(10).build();
+        CheckoutRequest request = new CheckoutRequest("John Doe", "john@example.com", List.of(
+                new OrderItemRequest(2L, 1),
+                new OrderItemRequest(1L, 1),
+                new OrderItemRequest(2L, 2)));
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(mouse, product));
+
+        Order result = orderService.checkout(request);
+
+        assertEquals(2, result.getOrderItems().size());
+        assertEquals(3, result.getOrderItems().get(1).getQuantity());
+        assertEquals(new BigDecimal("1075.00"), result.getTotalAmount());
+        verify(orderRepository).save(result);
+        InOrder inOrder = inOrder(stockReservationService);
+        inOrder.verify(stockReservationService).reserve(product, 1);
+        inOrder.verify(stockReservationService).reserve(mouse, 3);
+    }
+
+    @Test
+    void checkout_UnknownProduct_ThrowsBeforeReserving() {
+        CheckoutRequest request = new CheckoutRequest("John Doe", "john@example.com", List.of(
+                new OrderItemRequest(1L, 1),
+                new OrderItemRequest(99L, 1)));
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.checkout(request));
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(stockReservationService);
+    }
+
+    @Test
+    void checkout_InsufficientStock_ThrowsBeforeReserving() {
+        CheckoutRequest request = new CheckoutRequest("John Doe", "john@example.com", List.of(
+                new OrderItemRequest(1L, 6),
+                new OrderItemRequest(1L, 6)));
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        assertThrows(IllegalStateException.class, () -> orderService.checkout(request));
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(stockReservationService);
+    }
+
+    @Test
+    void checkout_MergedQuantityOverflows_ThrowsInvalidRequest() {
+        CheckoutRequest request = new CheckoutRequest("John Doe", "john@example.com", List.of(
+                new OrderItemRequest(1L, Integer.MAX_VALUE),
+                new OrderItemRequest(1L, 1)));
+
+        assertThrows(InvalidRequestException.class, () -> orderService.checkout(request));
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(stockReservationService);
+    }
+
     @Test
     void updateOrder_PendingOrder_UpdatesCustomerData() {
         OrderUpdateRequest request = new OrderUpdateRequest();
         request.setCustomerName("Jane Doe");
         request.setCustomerEmail("jane@example.com");
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArgument(0));
 
         Order updated = orderService.updateOrder(1L, request);
@@ -139,7 +277,7 @@ class OrderServiceTest {
         request.setCustomerName("Jane Doe");
         request.setCustomerEmail("jane@example.com");
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
 
         IllegalStateException ex = assertThrows(
                 IllegalStateException.class,
@@ -152,7 +290,7 @@ class OrderServiceTest {
 
     @Test
     void deleteOrder_ExistingId_DeletesOrder() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
         doNothing().when(orderRepository).delete(order);
 
         orderService.deleteOrder(1L);
@@ -166,14 +304,19 @@ class OrderServiceTest {
         request.setProductId(1L);
         request.setQuantity(3);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
 
         OrderItem result = orderService.addItemToOrder(1L, request);
 
-        assertEquals(7, product.getStockQuantity());
         assertEquals(2, order.getOrderItems().size());
         assertEquals(3, result.getQuantity());
+        assertEquals(new BigDecimal("3000.00"), result.getSubtotal());
+        assertEquals(new BigDecimal("3000.00"), order.getTotalAmount());
+        verify(orderRepository).addToTotalAmount(1L, new BigDecimal("3000.00"));
+        verify(stockReservationService).reserve(product, 3);
+        verify(productRepository, never()).findByIdForUpdate(any());
+        assertEquals(1, meterRegistry.timer(OrderService.STOCK_LOCK_WAIT).count());
     }
 
     @Test
@@ -182,8 +325,10 @@ class OrderServiceTest {
         request.setProductId(1L);
         request.setQuantity(50);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        doThrow(new IllegalStateException("Not enough stock"))
+                .when(stockReservationService).reserve(product, 50);
 
         assertThrows(IllegalStateException.class,
                 () -> orderService.addItemToOrder(1L, request));
@@ -195,7 +340,7 @@ class OrderServiceTest {
         request.setProductId(1L);
         request.setQuantity(1);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> orderService.addItemToOrder(1L, request));
@@ -205,22 +350,27 @@ class OrderServiceTest {
     void updateOrderItem_IncreaseQuantity_AdjustsStock() {
         OrderItemUpdateRequest request = new OrderItemUpdateRequest(4);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
 
         OrderItem result = orderService.updateOrderItem(1L, 1L, request);
 
-        assertEquals(8, product.getStockQuantity());
+        verify(stockReservationService).adjust(product, 2);
+        verify(orderRepository).addToTotalAmount(1L, new BigDecimal("2000.00"));
         assertEquals(4, result.getQuantity());
+        assertEquals(new BigDecimal("4000.00"), result.getSubtotal());
     }
 
     @Test
     void updateOrderItem_InsufficientStock_ThrowsException() {
         OrderItemUpdateRequest request = new OrderItemUpdateRequest(50);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        doThrow(new IllegalStateException("Not enough stock"))
+                .when(stockReservationService).adjust(product, 48);
 
         assertThrows(IllegalStateException.class,
                 () -> orderService.updateOrderItem(1L, 1L, request));
+        assertEquals(2, orderItem.getQuantity());
     }
 
     @Test
@@ -236,6 +386,7 @@ class OrderServiceTest {
                 .id(10L)
                 .product(product)
                 .quantity(2)
+                .subtotal(new BigDecimal("200"))
                 .build();
 
         Order order = Order.builder()
@@ -245,14 +396,20 @@ class OrderServiceTest {
 
         item.setOrder(order);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
 
         orderService.deleteOrderItem(1L, 10L);
 
-        assertEquals(7, product.getStockQuantity());
+        verify(stockReservationService).release(product, 2);
+        verify(orderRepository).addToTotalAmount(1L, new BigDecimal("-200"));
         assertTrue(order.getOrderItems().isEmpty());
     }
 
-
+    private OrderLineRow line(Long orderId, Long itemId, BigDecimal totalAmount) {
+        return itemId == null
+                ? new OrderLineRow(orderId, "John Doe", "john@example.com", Order.OrderStatus.PENDING, totalAmount,
+                        null, null, null, null, null, null)
+                : new OrderLineRow(orderId, "John Doe", "john@example.com", Order.OrderStatus.PENDING, totalAmount,
+                        itemId, 1L, "Laptop", 2, new BigDecimal("1000.00"), new BigDecimal("2000.00"));
+    }
 }
-
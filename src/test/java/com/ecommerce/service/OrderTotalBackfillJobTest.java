@@ -0,0 +1,33 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderTotalBackfillJobTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private OrderTotalBackfillJob job;
+
+    @Test
+    void backfillChunk_OneChunkPerTick_StopsAfterEmptyChunk() {
+        when(orderService.backfillTotalAmounts(anyInt())).thenReturn(500, 120, 0);
+
+        for (int tick = 0; tick < 5; tick++) {
+            job.backfillChunk();
+        }
+
+        verify(orderService, times(3)).backfillTotalAmounts(anyInt());
+    }
+}
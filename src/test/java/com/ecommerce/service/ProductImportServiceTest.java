@@ -0,0 +1,161 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.response.ImportLineError;
+import com.ecommerce.model.response.ProductImportReport;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.SequenceIdAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs against the Flyway schema. Tiny batches and slices make every import use several of each.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductImportService.class, SequenceIdAllocator.class, CacheConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "ecommerce.products.import.batch-size=3",
+        "ecommerce.products.import.parser-threads=3",
+        "ecommerce.products.import.slice-size=100B"
+})
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM products");
+    }
+
+    @Test
+    void importProducts_InsertsAcrossSlicesAndReportsInvalidRows() throws IOException {
+        String rows = IntStream.range(0, 40)
+                .mapToObj(i -> "Product " + i + ",\"Desc, with comma\"," + (i + 1) + ".50," + i)
+                .collect(Collectors.joining("\n"));
+        Path file = write("name,description,price,stock_quantity\n" + rows
+                + "\nX,too short name,1.00,1"
+                + "\nNegative,,1.00,-1"
+                + "\nNo price,,abc,1"
+                + "\n\"Broken,,1.00,1\n");
+
+        ProductImportReport report = productImportService.importProducts(file);
+
+        assertEquals(44, report.getRowsRead());
+        assertEquals(40, report.getInserted());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(42L, 43L, 44L, 45L),
+                report.getErrors().stream().map(ImportLineError::getLine).toList());
+        assertEquals(40, productRepository.count());
+        Product product = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Product 7")).findFirst().orElseThrow();
+        assertEquals("Desc, with comma", product.getDescription());
+        assertEquals(new BigDecimal("8.50"), product.getPrice());
+    }
+
+    @Test
+    void importProducts_Tsv_UpdatesExistingByName() throws IOException {
+        Product existing = productRepository.save(Product.builder()
+                .name("Laptop").price(BigDecimal.ONE).stockQuantity(1).build());
+
+        ProductImportReport report = productImportService.importProducts(write(
+                "stock_quantity\tprice\tname\n"
+                        + "5\t999.99\tLaptop\n"
+                        + "7\t19.99\tMouse\n"
+                        + "9\t899.99\tLaptop\n"));
+
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getDuplicates());
+        Product laptop = productRepository.findById(existing.getId()).orElseThrow();
+        assertEquals(new BigDecimal("899.99"), laptop.getPrice());
+        assertEquals(9, laptop.getStockQuantity());
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void importProducts_NoDescriptionColumn_KeepsExistingDescription() throws IOException {
+        Product existing = productRepository.save(Product.builder()
+                .name("Laptop").description("15 inch").price(BigDecimal.ONE).stockQuantity(1).build());
+
+        ProductImportReport report = productImportService.importProducts(write(
+                "name,price,stock_quantity\n"
+                        + "Laptop,999.99,5\n"));
+
+        assertEquals(1, report.getUpdated());
+        Product laptop = productRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("15 inch", laptop.getDescription());
+        assertEquals(new BigDecimal("999.99"), laptop.getPrice());
+        assertEquals(5, laptop.getStockQuantity());
+    }
+
+    @Test
+    void importProducts_NameRepeatedAcrossSlices_LastRowWins() throws IOException {
+        // Each round is its own slice, the one that writes last must be the last in the file
+        String rows = IntStream.range(0, 30)
+                .mapToObj(round -> IntStream.range(0, 4)
+                        .mapToObj(i -> "Product " + i + ",round " + round + ",1.00," + round)
+                        .collect(Collectors.joining("\n")))
+                .collect(Collectors.joining("\n"));
+
+        ProductImportReport report = productImportService.importProducts(write(
+                "name,description,price,stock_quantity\n" + rows + "\n"));
+
+        assertEquals(120, report.getRowsRead());
+        assertEquals(4, report.getInserted());
+        assertEquals(116, report.getUpdated() + report.getDuplicates());
+        assertEquals(4, productRepository.count());
+        productRepository.findAll().forEach(product -> {
+            assertEquals("round 29", product.getDescription());
+            assertEquals(29, product.getStockQuantity());
+        });
+    }
+
+    @Test
+    void importProducts_MissingColumn_Throws() throws IOException {
+        Path file = write("name,description\nLaptop,x\n");
+
+        assertThrows(InvalidRequestException.class, () -> productImportService.importProducts(file));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(tempDir, "products", ".csv"), content);
+    }
+}
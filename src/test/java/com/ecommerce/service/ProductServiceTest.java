@@ -1,7 +1,10 @@
 package com.ecommerce.service;
 
+import com.ecommerce.exception.InvalidRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.projection.ProductVersionRow;
+import com.ecommerce.model.response.CursorPage;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +13,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +33,9 @@ class ProductServiceTest {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private StockBucketService stockBucketService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -46,15 +54,45 @@ class ProductServiceTest {
 
     // TODO - Check tests
     @Test
-    void getAllProducts_ReturnsListOfProducts() {
+    void getAllProducts_ReturnsFirstPage() {
         List<Product> products = Arrays.asList(product);
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(products);
 
-        List<Product> result = productService.getAllProducts();
+        CursorPage<Product> result = productService.getAllProducts(null, null);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(productRepository, times(1)).findAll();
+        assertEquals(1, result.getItems().size());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+        verify(productRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21));
+    }
+
+    @Test
+    void getAllProducts_MoreRowsThanSize_ReturnsCursorToNextPage() {
+        Product second = Product.builder().id(2L).name("Second").build();
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(product, second));
+
+        CursorPage<Product> firstPage = productService.getAllProducts(null, 1);
+
+        assertEquals(1, firstPage.getItems().size());
+        assertTrue(firstPage.isHasMore());
+
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2)))
+                .thenReturn(List.of(second));
+
+        CursorPage<Product> secondPage = productService.getAllProducts(firstPage.getNextCursor(), 1);
+
+        assertEquals(2L, secondPage.getItems().get(0).getId());
+        assertFalse(secondPage.isHasMore());
+    }
+
+    @Test
+    void getAllProducts_InvalidCursor_ThrowsException() {
+        assertThrows(InvalidRequestException.class,
+                () -> productService.getAllProducts("not-a-cursor", 10));
+
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -66,6 +104,51 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals("Test Product", result.getName());
         verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void getProductById_ShardedStock_ReturnsBucketTotal() {
+        product.setStockSharded(true);
+        Product view = product.toBuilder().stockQuantity(42).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockBucketService.toShardedView(product)).thenReturn(view);
+
+        Product result = productService.getProductById(1L);
+
+        assertEquals(42, result.getStockQuantity());
+    }
+
+    @Test
+    void isCurrent_SameVersion_ReturnsTrue() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(version(product)));
+
+        assertTrue(productService.isCurrent(product.toBuilder().build()));
+    }
+
+    @Test
+    void isCurrent_StockChanged_ReturnsFalse() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(version(product)));
+
+        assertFalse(productService.isCurrent(product.toBuilder().stockQuantity(product.getStockQuantity() + 1).build()));
+    }
+
+    @Test
+    void isCurrent_ShardedStock_ComparesBucketTotal() {
+        product.setStockSharded(true);
+        ProductVersionRow row = version(product);
+        row.setBucketQuantity(42L);
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(row));
+
+        assertTrue(productService.isCurrent(product.toBuilder().stockQuantity(42).build()));
+        assertFalse(productService.isCurrent(product));
+    }
+
+    @Test
+    void isCurrent_Deleted_ReturnsFalse() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(productService.isCurrent(product));
     }
 
     @Test
@@ -144,4 +227,9 @@ class ProductServiceTest {
         verify(productRepository, never()).delete(any());
     }
 
+
+    private static ProductVersionRow version(Product product) {
+        return new ProductVersionRow(product.getId(), product.getUpdatedAt(), product.getStockQuantity(),
+                product.getStockSharded(), 0L);
+    }
 }
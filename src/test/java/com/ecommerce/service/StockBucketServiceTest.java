@@ -0,0 +1,169 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidRequestException;
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.model.entity.ProductStockBucket;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductStockBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockBucketServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductStockBucketRepository bucketRepository;
+
+    @InjectMocks
+    private StockBucketService stockBucketService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = Product.builder()
+                .id(1L)
+                .name("Console")
+                .price(new BigDecimal("499.99"))
+                .stockQuantity(10)
+                .stockSharded(false)
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enableSharding_SplitsStockEvenlyAndZeroesColumn() {
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+
+        Product result = stockBucketService.enableSharding(1L, 3);
+
+        ArgumentCaptor<List<ProductStockBucket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bucketRepository).saveAll(captor.capture());
+        assertEquals(List.of(4, 3, 3), captor.getValue().stream().map(ProductStockBucket::getQuantity).toList());
+        assertEquals(0, result.getStockQuantity());
+        assertTrue(result.isStockShardingEnabled());
+    }
+
+    @Test
+    void enableSharding_InvalidBucketCount_ThrowsException() {
+        assertThrows(InvalidRequestException.class, () -> stockBucketService.enableSharding(1L, 1));
+
+        verifyNoInteractions(productRepository, bucketRepository);
+    }
+
+    @Test
+    void disableSharding_MovesBucketTotalBackToColumn() {
+        product.setStockSharded(true);
+        product.setStockQuantity(0);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(bucketRepository.findByProductIdForUpdate(1L)).thenReturn(List.of(bucket(0, 2), bucket(1, 5)));
+
+        Product result = stockBucketService.disableSharding(1L);
+
+        assertEquals(7, result.getStockQuantity());
+        assertFalse(result.isStockShardingEnabled());
+        verify(bucketRepository).deleteByProductId(1L);
+    }
+
+    @Test
+    void tryReserve_BucketWithEnoughStock_DecrementsSingleBucket() {
+        when(bucketRepository.findIdsWithAtLeast(1L, 2)).thenReturn(List.of(10L));
+        when(bucketRepository.decrement(10L, 2)).thenReturn(1);
+
+        assertTrue(stockBucketService.tryReserve(1L, 2));
+
+        verify(bucketRepository, never()).findByProductIdForUpdate(anyLong());
+    }
+
+    @Test
+    void tryReserve_NoSingleBucketLargeEnough_DrainsSeveralBuckets() {
+        ProductStockBucket first = bucket(0, 2);
+        ProductStockBucket second = bucket(1, 3);
+        when(bucketRepository.findIdsWithAtLeast(1L, 4)).thenReturn(List.of());
+        when(bucketRepository.sumQuantity(1L)).thenReturn(5L);
+        when(bucketRepository.findByProductIdForUpdate(1L)).thenReturn(List.of(first, second));
+
+        assertTrue(stockBucketService.tryReserve(1L, 4));
+
+        assertEquals(0, first.getQuantity());
+        assertEquals(1, second.getQuantity());
+    }
+
+    @Test
+    void tryReserve_BucketsHoldTooLittle_ReturnsFalseWithoutLocking() {
+        when(bucketRepository.findIdsWithAtLeast(1L, 10)).thenReturn(List.of());
+        when(bucketRepository.sumQuantity(1L)).thenReturn(5L);
+
+        assertFalse(stockBucketService.tryReserve(1L, 10));
+
+        verify(bucketRepository, never()).findByProductIdForUpdate(anyLong());
+        verify(bucketRepository, never()).decrement(anyLong(), anyInt());
+    }
+
+    @Test
+    void tryReserve_StockTakenBeforeLock_ReturnsFalse() {
+        ProductStockBucket first = bucket(0, 2);
+        ProductStockBucket second = bucket(1, 3);
+        when(bucketRepository.findIdsWithAtLeast(1L, 10)).thenReturn(List.of());
+        when(bucketRepository.sumQuantity(1L)).thenReturn(10L);
+        when(bucketRepository.findByProductIdForUpdate(1L)).thenReturn(List.of(first, second));
+
+        assertFalse(stockBucketService.tryReserve(1L, 10));
+
+        assertEquals(2, first.getQuantity());
+        assertEquals(3, second.getQuantity());
+    }
+
+    @Test
+    void rebalance_UnevenBuckets_SpreadsTotal() {
+        ProductStockBucket first = bucket(0, 9);
+        ProductStockBucket second = bucket(1, 0);
+        ProductStockBucket third = bucket(2, 0);
+        when(bucketRepository.findByProductIdForUpdate(1L)).thenReturn(List.of(first, second, third));
+
+        stockBucketService.rebalance(1L);
+
+        assertEquals(3, first.getQuantity());
+        assertEquals(3, second.getQuantity());
+        assertEquals(3, third.getQuantity());
+    }
+
+    @Test
+    void toShardedView_ReturnsCopyWithBucketTotal() {
+        product.setStockSharded(true);
+        product.setStockQuantity(0);
+        when(bucketRepository.sumQuantity(1L)).thenReturn(12L);
+
+        Product view = stockBucketService.toShardedView(product);
+
+        assertEquals(12, view.getStockQuantity());
+        assertEquals(0, product.getStockQuantity());
+        assertNotSame(product, view);
+    }
+
+    private ProductStockBucket bucket(int bucketNo, int quantity) {
+        return ProductStockBucket.builder()
+                .id(10L + bucketNo)
+                .productId(1L)
+                .bucketNo(bucketNo)
+                .quantity(quantity)
+                .build();
+    }
+}
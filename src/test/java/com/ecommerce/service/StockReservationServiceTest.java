@@ -0,0 +1,127 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.entity.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockBucketService stockBucketService;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    private Product product;
+    private Product shardedProduct;
+
+    @BeforeEach
+    void setUp() {
+        product = Product.builder()
+                .id(1L)
+                .name("Laptop")
+                .price(new BigDecimal("1000.00"))
+                .stockQuantity(10)
+                .stockSharded(false)
+                .build();
+
+        shardedProduct = product.toBuilder()
+                .id(2L)
+                .stockQuantity(0)
+                .stockSharded(true)
+                .build();
+    }
+
+    @Test
+    void reserve_EnoughStock_DecrementsInOneStatement() {
+        when(productRepository.decrementStock(1L, 3)).thenReturn(1);
+
+        stockReservationService.reserve(product, 3);
+
+        verify(productRepository).decrementStock(1L, 3);
+        verify(productRepository, never()).findById(anyLong());
+        verifyNoInteractions(stockBucketService);
+    }
+
+    @Test
+    void reserve_NoRowUpdated_ThrowsException() {
+        when(productRepository.decrementStock(1L, 50)).thenReturn(0);
+        when(productRepository.isStockSharded(1L)).thenReturn(false);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> stockReservationService.reserve(product, 50));
+
+        assertEquals("Not enough stock", ex.getMessage());
+    }
+
+    @Test
+    void reserve_ShardedProduct_ReservesFromBuckets() {
+        when(stockBucketService.tryReserve(2L, 3)).thenReturn(true);
+
+        stockReservationService.reserve(shardedProduct, 3);
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void reserve_ShardedAfterLoad_RetriesAgainstBuckets() {
+        when(productRepository.decrementStock(1L, 3)).thenReturn(0);
+        when(productRepository.isStockSharded(1L)).thenReturn(true);
+        when(stockBucketService.tryReserve(1L, 3)).thenReturn(true);
+
+        stockReservationService.reserve(product, 3);
+
+        verify(stockBucketService).tryReserve(1L, 3);
+    }
+
+    @Test
+    void release_ShardedProduct_ReturnsStockToBucket() {
+        when(stockBucketService.tryRelease(2L, 2)).thenReturn(true);
+
+        stockReservationService.release(shardedProduct, 2);
+
+        verify(productRepository, never()).incrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void adjust_PositiveDelta_Reserves() {
+        when(productRepository.decrementStock(1L, 2)).thenReturn(1);
+
+        stockReservationService.adjust(product, 2);
+
+        verify(productRepository).decrementStock(1L, 2);
+        verify(productRepository, never()).incrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void adjust_NegativeDelta_Releases() {
+        stockReservationService.adjust(product, -2);
+
+        verify(productRepository).incrementStock(1L, 2);
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void adjust_ZeroDelta_DoesNothing() {
+        stockReservationService.adjust(product, 0);
+
+        verifyNoInteractions(productRepository, stockBucketService);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvTokenizerTest {
+
+    @Test
+    void next_SplitsFieldsAndDecodesQuotes() {
+        CsvTokenizer tokenizer = tokenizer("a,\"b, \"\"quoted\"\"\",,\"\"\r\nlast,ünïcode", ',');
+
+        assertTrue(tokenizer.next());
+        assertEquals(4, tokenizer.fieldCount());
+        assertEquals("a", tokenizer.field(0));
+        assertEquals("b, \"quoted\"", tokenizer.field(1));
+        assertNull(tokenizer.field(2));
+        assertNull(tokenizer.field(3));
+
+        assertTrue(tokenizer.next());
+        assertEquals(2, tokenizer.line());
+        assertEquals("ünïcode", tokenizer.field(1));
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    void next_Tabs_KeepsCommasInFields() {
+        CsvTokenizer tokenizer = tokenizer("a, b\tc\n", '\t');
+
+        assertTrue(tokenizer.next());
+        assertEquals("a, b", tokenizer.field(0));
+        assertEquals("c", tokenizer.field(1));
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    void next_MalformedLine_ReportsErrorAndContinues() {
+        CsvTokenizer tokenizer = tokenizer("\"open,x\n\nok,1\n", ',');
+
+        assertTrue(tokenizer.next());
+        assertNotNull(tokenizer.error());
+        assertEquals(0, tokenizer.fieldCount());
+
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.isBlank());
+
+        assertTrue(tokenizer.next());
+        assertNull(tokenizer.error());
+        assertEquals(3, tokenizer.line());
+        assertEquals("1", tokenizer.field(1));
+    }
+
+    private static CsvTokenizer tokenizer(String input, char delimiter) {
+        return new CsvTokenizer(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)), delimiter);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileDownloadUtilTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("download-", ".txt");
+        Files.writeString(file, "0123456789");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void send_NoRange_WritesWholeFile() throws Exception {
+        MockHttpServletResponse response = send(null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(10, response.getContentLength());
+        assertEquals("0123456789", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void send_SingleRange_WritesPartialContent() throws Exception {
+        MockHttpServletResponse response = send("bytes=2-5");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals("2345", response.getContentAsString(StandardCharsets.UTF_8));
+
+        assertEquals("789", send("bytes=-3").getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void send_RangeOutsideFile_Returns416() throws Exception {
+        MockHttpServletResponse response = send("bytes=20-");
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void send_SendfileSupported_HandsFileToConnector() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Range", "bytes=4-");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FileDownloadUtil.send(file, "text/plain", "f.txt", request, response);
+
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(4L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletResponse send(String range) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileDownloadUtil.send(file, "text/plain", "f.txt", request, response);
+        return response;
+    }
+}